@@ -1,5 +1,13 @@
 package main_memory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -8,7 +16,8 @@ public class MemoryAllocator{
     int MemoryBlockSize[] = GenerateMemoryBlockSize();
     int ProcessSizeLength = 8;
     int ProcessSize[] = GenerateProcessSize();
-    int MemoryAllocation[] = new int[ProcessSizeLength];
+    int MemoryAllocation[] = GenerateEmptyAllocation();
+    Path StateFile = Paths.get("MemoryAllocator.state");
 
     public void Run(){
         String Input;
@@ -25,36 +34,55 @@ public class MemoryAllocator{
 
             PrintProcessSize();
 
-            System.out.println("\nAllocation Algorithm\n1.) First Fit\n2.) Next Fit\n3.) Best Fit\n4.) Worst Fit\n5.) Regenerate Memory Block Sizes\n6.) Regenerate Process Sizes");
+            System.out.println("\nAllocation Algorithm\n1.) First Fit\n2.) Next Fit\n3.) Best Fit\n4.) Worst Fit\n5.) Regenerate Memory Block Sizes\n6.) Regenerate Process Sizes\n7.) Save State\n8.) Load State\n9.) Exit");
 
             Input = InputScanner.nextLine();
             Input = Input.strip();
 
             if (Input.equals("1")){
                 FirstFit();
-
-                break;
             }
             else if (Input.equals("2")){
                 NextFit();
-
-                break;
             }
             else if (Input.equals("3")){
                 BestFit();
-
-                break;
             }
             else if (Input.equals("4")){
                 WorstFit();
-
-                break;
             }
             else if (Input.equals("5")){
                 MemoryBlockSize = GenerateMemoryBlockSize();
+                MemoryAllocation = GenerateEmptyAllocation();
             }
             else if (Input.equals("6")){
                 ProcessSize = GenerateProcessSize();
+                MemoryAllocation = GenerateEmptyAllocation();
+            }
+            else if (Input.equals("7")){
+                try{
+                    SaveState(StateFile);
+
+                    System.out.println("State saved to " + StateFile);
+                }
+                catch (IOException Error){
+                    System.out.println("Could not save state: " + Error.getMessage());
+                }
+            }
+            else if (Input.equals("8")){
+                try{
+                    LoadState(StateFile);
+
+                    System.out.println("State loaded from " + StateFile);
+
+                    PrintStats();
+                }
+                catch (IOException Error){
+                    System.out.println("Could not load state: " + Error.getMessage());
+                }
+            }
+            else if (Input.equals("9")){
+                break;
             }
         }
 
@@ -190,6 +218,17 @@ public class MemoryAllocator{
         return ProcessSize;
     }
 
+    int[] GenerateEmptyAllocation(){
+        int[] Allocation = new int[ProcessSizeLength];
+
+        // -1 marks a process that is not allocated
+        for (int i = 0; i < ProcessSizeLength; i++){
+            Allocation[i] = -1;
+        }
+
+        return Allocation;
+    }
+
     void PrintMemoryBlockSize(){
         for (int i = 0; i < MemoryBlockSizeLength; i++){
             System.out.print(MemoryBlockSize[i] + " ");
@@ -272,4 +311,71 @@ public class MemoryAllocator{
 
         return BlockSize;
     }
+
+    void SaveState(Path File) throws IOException{
+        // Lengths first, then the three arrays, as big-endian ints
+        ByteBuffer Buffer = ByteBuffer.allocate(4 * (2 + MemoryBlockSizeLength + 2 * ProcessSizeLength));
+        Path TemporaryFile = File.resolveSibling(File.getFileName() + ".tmp");
+
+        Buffer.putInt(MemoryBlockSizeLength);
+        Buffer.putInt(ProcessSizeLength);
+
+        for (int i = 0; i < MemoryBlockSizeLength; i++){
+            Buffer.putInt(MemoryBlockSize[i]);
+        }
+
+        for (int i = 0; i < ProcessSizeLength; i++){
+            Buffer.putInt(ProcessSize[i]);
+        }
+
+        for (int i = 0; i < ProcessSizeLength; i++){
+            Buffer.putInt(MemoryAllocation[i]);
+        }
+
+        Buffer.flip();
+
+        // Write to a temporary file and rename, so a crash never leaves a half-written state
+        try (FileChannel Channel = FileChannel.open(TemporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (Buffer.hasRemaining()){
+                Channel.write(Buffer);
+            }
+
+            Channel.force(false);
+        }
+
+        Files.move(TemporaryFile, File, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void LoadState(Path File) throws IOException{
+        ByteBuffer Buffer = ByteBuffer.wrap(Files.readAllBytes(File));
+
+        if (Buffer.remaining() < 8){
+            throw new IOException("State file is truncated");
+        }
+
+        int BlockLength = Buffer.getInt();
+        int ProcessLength = Buffer.getInt();
+
+        if (BlockLength < 0 || ProcessLength < 0 || Buffer.remaining() != 4L * (BlockLength + 2L * ProcessLength)){
+            throw new IOException("State file is corrupt");
+        }
+
+        MemoryBlockSizeLength = BlockLength;
+        ProcessSizeLength = ProcessLength;
+        MemoryBlockSize = new int[MemoryBlockSizeLength];
+        ProcessSize = new int[ProcessSizeLength];
+        MemoryAllocation = new int[ProcessSizeLength];
+
+        for (int i = 0; i < MemoryBlockSizeLength; i++){
+            MemoryBlockSize[i] = Buffer.getInt();
+        }
+
+        for (int i = 0; i < ProcessSizeLength; i++){
+            ProcessSize[i] = Buffer.getInt();
+        }
+
+        for (int i = 0; i < ProcessSizeLength; i++){
+            MemoryAllocation[i] = Buffer.getInt();
+        }
+    }
 }
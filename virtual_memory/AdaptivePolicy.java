@@ -0,0 +1,319 @@
+package virtual_memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adaptive meta-policy that switches the live frame table between the Second Chance
+ * and Third Chance victim-selection rules, depending on which one is currently winning.
+ *
+ * Both rules are run in shadow on ghost directories: metadata-only clock tables
+ * (page numbers and R/M bits in primitive arrays, no Page objects) that record what
+ * each rule would keep resident and evict. Each ghost directory counts the faults its
+ * rule would have taken over a sliding window of references. When the inactive rule
+ * would have faulted clearly less than the active one (by more than switchMargin)
+ * over a full window, the live table switches to it. The live frames are not flushed,
+ * only the rule the hand applies from then on changes.
+ *
+ * Overhead is bounded by set sampling: the ghost directories only see pages whose hash
+ * falls in a 1/2^sampleShift sample, with 1/2^sampleShift of the frames, so shadowing
+ * both rules costs a fixed fraction of the live table's work and memory.
+ */
+public class AdaptivePolicy extends ClockPolicy {
+
+    // Victim-selection rules
+    public static final int SECOND_CHANCE = 0;
+    public static final int THIRD_CHANCE = 1;
+    private static final String[] RULE_NAMES = {"SecondChance", "ThirdChance"};
+
+    // Number of buckets the sliding window is divided into
+    private static final int WINDOW_BUCKETS = 16;
+
+    // Rule currently applied to the live frame table
+    private int activeRule;
+
+    // One ghost directory per rule
+    private final GhostDirectory[] ghosts;
+
+    // Sampling mask: a page is shadowed if (hash & sampleMask) == 0
+    private final int sampleMask;
+
+    // Sliding window of ghost faults: faults[rule][bucket]
+    private final long[][] windowFaults = new long[2][WINDOW_BUCKETS];
+    private final long bucketLength;
+    private int bucket = 0;
+    private int filledBuckets = 0;
+
+    // Relative fault advantage required to switch (e.g. 0.05 = 5% fewer faults)
+    private final double switchMargin;
+
+    private final List<SwitchEvent> switchEvents = new ArrayList<>();
+
+    /**
+     * Creates an adaptive frame table starting with the Second Chance rule.
+     *
+     * @param numberOfFrames capacity of the frame buffer
+     * @param window         sliding window, in references, over which the rules are compared
+     * @param switchMargin   relative fault advantage the other rule needs before a switch
+     * @param sampleShift    shadow 1/2^sampleShift of the pages (0 = shadow everything)
+     */
+    public AdaptivePolicy(int numberOfFrames, long window, double switchMargin, int sampleShift) {
+        super(numberOfFrames);
+        if (window < WINDOW_BUCKETS) {
+            throw new IllegalArgumentException("window must be at least " + WINDOW_BUCKETS + ": " + window);
+        }
+        if (sampleShift < 0 || (numberOfFrames >> sampleShift) == 0) {
+            throw new IllegalArgumentException("sampleShift leaves no ghost frames: " + sampleShift);
+        }
+        this.activeRule = SECOND_CHANCE;
+        this.ghosts = new GhostDirectory[] {
+            new GhostDirectory(SECOND_CHANCE, numberOfFrames >> sampleShift),
+            new GhostDirectory(THIRD_CHANCE, numberOfFrames >> sampleShift)
+        };
+        this.sampleMask = (1 << sampleShift) - 1;
+        this.bucketLength = window / WINDOW_BUCKETS;
+        this.switchMargin = switchMargin;
+    }
+
+    public static void main(String[] args) {
+        int numberOfFrames = 1024;
+        int phaseLength = 1_000_000;
+        int phases = 6;
+
+        // Hot Zipf set plus a cold scan. Even phases write the hot pages (dirty pages are worth
+        // keeping: Third Chance wins); odd phases write only the scan (Second Chance wins).
+        WorkloadGenerator hot = WorkloadGenerator.zipf(1, 4096, 0.8);
+        WorkloadGenerator cold = WorkloadGenerator.scan(2, 1 << 20, 1);
+        int length = phaseLength * phases;
+        int[] referenceString = new int[length];
+        boolean[] writes = new boolean[length];
+        boolean[] coinFlips = new boolean[length];
+        hot.fillWrites(coinFlips, 0, length, 0.5);
+        for (int i = 0; i < length; i++) {
+            boolean hotPhase = (i / phaseLength) % 2 == 0;
+            if (i % 4 != 3) {
+                referenceString[i] = hot.nextReference();
+                writes[i] = hotPhase && referenceString[i] < 1024 && coinFlips[i];
+            } else {
+                referenceString[i] = 4096 + cold.nextReference();
+                writes[i] = !hotPhase;
+            }
+        }
+
+        ReplacementPolicy[] policies = {
+            new SecondChance.Policy(numberOfFrames),
+            new ThirdChance.Policy(numberOfFrames),
+            new AdaptivePolicy(numberOfFrames, 100_000, 0.02, 2)
+        };
+
+        System.out.println("\n\n**** Adaptive Policy ***");
+        System.out.println("Number of references: " + length);
+        System.out.println("Number of frames: " + numberOfFrames + "\n");
+
+        for (ReplacementPolicy policy : policies) {
+            long start = System.nanoTime();
+            for (int i = 0; i < length; i++) {
+                policy.access(referenceString[i], writes[i]);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-28s | fault rate %6.3f%% | %6.1f M refs/s%n", policy.getName(),
+                    100.0 * policy.getFaultCount() / policy.getReferenceCount(), length / seconds / 1e6);
+        }
+
+        System.out.println("\nSwitch events:");
+        for (SwitchEvent event : ((AdaptivePolicy) policies[2]).getSwitchEvents()) {
+            System.out.println("  " + event);
+        }
+    }
+
+    @Override
+    protected void onReference(int pageNumber, boolean write) {
+        // Shadow the sampled pages on both ghost directories
+        if ((hash(pageNumber) & sampleMask) == 0) {
+            for (GhostDirectory ghost : ghosts) {
+                if (ghost.access(pageNumber, write)) {
+                    windowFaults[ghost.rule][bucket]++;
+                }
+            }
+        }
+        if (references % bucketLength == 0) {
+            endBucket();
+        }
+    }
+
+    /**
+     * Chooses a victim on the live frame table with the active rule.
+     */
+    @Override
+    protected int selectVictim() {
+        while (true) {
+            int frameNumber = hand;
+            Page candidate = frames.get(frameNumber).getPage();
+            hand = (hand + 1) % frames.size();
+            if (candidate.isReferenceBit()) {
+                // Both rules: if R=1, clear R and skip
+                candidate.setReferenceBit(false);
+            } else if (activeRule == THIRD_CHANCE && candidate.isModifiedBit()) {
+                // Third Chance only: if M=1, clear M and skip
+                candidate.resetModifiedBit();
+            } else {
+                // Evict this page
+                return frameNumber;
+            }
+        }
+    }
+
+    /**
+     * Closes the current window bucket and switches rules if the inactive one is clearly ahead.
+     */
+    private void endBucket() {
+        bucket = (bucket + 1) % WINDOW_BUCKETS;
+        if (filledBuckets < WINDOW_BUCKETS) {
+            filledBuckets++;
+        }
+
+        if (filledBuckets == WINDOW_BUCKETS) {
+            long activeFaults = 0;
+            long otherFaults = 0;
+            int otherRule = 1 - activeRule;
+            for (int b = 0; b < WINDOW_BUCKETS; b++) {
+                activeFaults += windowFaults[activeRule][b];
+                otherFaults += windowFaults[otherRule][b];
+            }
+            if (otherFaults < activeFaults * (1.0 - switchMargin)) {
+                switchEvents.add(new SwitchEvent(references, activeRule, otherRule, activeFaults, otherFaults));
+                activeRule = otherRule;
+                // Require a full fresh window of evidence before switching back
+                filledBuckets = 0;
+            }
+        }
+
+        // The bucket about to be reused starts empty
+        windowFaults[SECOND_CHANCE][bucket] = 0;
+        windowFaults[THIRD_CHANCE][bucket] = 0;
+    }
+
+    /**
+     * Returns the rule currently applied to the live frame table.
+     */
+    public int getActiveRule() {
+        return activeRule;
+    }
+
+    /**
+     * Returns every rule switch so far, in order.
+     */
+    public List<SwitchEvent> getSwitchEvents() {
+        return Collections.unmodifiableList(switchEvents);
+    }
+
+    @Override
+    public String getName() {
+        return "Adaptive(" + RULE_NAMES[activeRule] + ")";
+    }
+
+    private static int hash(int pageNumber) {
+        int h = pageNumber * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Record of one switch of the live victim-selection rule.
+     */
+    public static class SwitchEvent {
+
+        private final long reference;
+        private final int fromRule;
+        private final int toRule;
+        private final long fromFaults;
+        private final long toFaults;
+
+        SwitchEvent(long reference, int fromRule, int toRule, long fromFaults, long toFaults) {
+            this.reference = reference;
+            this.fromRule = fromRule;
+            this.toRule = toRule;
+            this.fromFaults = fromFaults;
+            this.toFaults = toFaults;
+        }
+
+        /**
+         * Returns the reference count at which the switch happened.
+         */
+        public long getReference() {
+            return reference;
+        }
+
+        public int getFromRule() {
+            return fromRule;
+        }
+
+        public int getToRule() {
+            return toRule;
+        }
+
+        @Override
+        public String toString() {
+            return "at reference " + reference + ": " + RULE_NAMES[fromRule] + " -> " + RULE_NAMES[toRule]
+                    + " (ghost faults over window " + fromFaults + " vs " + toFaults + ")";
+        }
+    }
+
+    /**
+     * Metadata-only clock table that replays one rule on the sampled references.
+     */
+    private static class GhostDirectory {
+
+        private final int rule;
+        private final int[] pages;
+        private final boolean[] referenceBits;
+        private final boolean[] modifiedBits;
+        private final PageTable pageTable;
+        private int hand = 0;
+        private int loaded = 0;
+
+        GhostDirectory(int rule, int numberOfFrames) {
+            this.rule = rule;
+            this.pages = new int[numberOfFrames];
+            this.referenceBits = new boolean[numberOfFrames];
+            this.modifiedBits = new boolean[numberOfFrames];
+            this.pageTable = new PageTable(numberOfFrames);
+        }
+
+        /**
+         * Returns true if this rule would have faulted on the reference.
+         */
+        boolean access(int pageNumber, boolean write) {
+            int frameNumber = pageTable.get(pageNumber);
+            if (frameNumber != PageTable.NOT_PRESENT) {
+                referenceBits[frameNumber] = true;
+                modifiedBits[frameNumber] |= write;
+                return false;
+            }
+
+            int victim;
+            if (loaded < pages.length) {
+                victim = loaded++;
+            } else {
+                while (true) {
+                    if (referenceBits[hand]) {
+                        referenceBits[hand] = false;
+                    } else if (rule == THIRD_CHANCE && modifiedBits[hand]) {
+                        modifiedBits[hand] = false;
+                    } else {
+                        break;
+                    }
+                    hand = (hand + 1) % pages.length;
+                }
+                victim = hand;
+                hand = (hand + 1) % pages.length;
+                pageTable.remove(pages[victim]);
+            }
+            pages[victim] = pageNumber;
+            referenceBits[victim] = true;
+            modifiedBits[victim] = write;
+            pageTable.put(pageNumber, victim);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package virtual_memory;
+
+/**
+ * Clock-driven Aging page replacement algorithm.
+ * Each page keeps a shift-register history of its reference bit instead of a single R bit.
+ * On a page fault, frames are inspected in circular order; every inspection ages the
+ * page (shift the counter right, move R into the highest bit, clear R):
+ *   - If the aged counter is 0, the page went unreferenced for counterBits sweeps: replace it.
+ *   - Otherwise, skip it.
+ * With counterBits = 1 this degenerates to Second Chance. Each reference sets R at most once
+ * and each R bit survives at most counterBits inspections, so the cost stays O(counterBits)
+ * amortized per reference, like the plain clock.
+ */
+public class Aging extends ClockPolicy {
+
+    // Width of each page's aging counter
+    private final int counterBits;
+
+    /**
+     * Creates an Aging frame table.
+     *
+     * @param numberOfFrames capacity of the frame buffer
+     * @param counterBits    width of the per-page history (1 to 31)
+     */
+    public Aging(int numberOfFrames, int counterBits) {
+        super(numberOfFrames);
+        if (counterBits < 1 || counterBits > 31) {
+            throw new IllegalArgumentException("counterBits must be in [1, 31]: " + counterBits);
+        }
+        this.counterBits = counterBits;
+    }
+
+    /**
+     * Chooses a victim using the clock-driven Aging policy. A prefetched page has R=0 and
+     * an empty history, so it is evicted at the hand's next visit unless used first.
+     */
+    @Override
+    protected int selectVictim() {
+        while (true) {
+            int frameNumber = hand;
+            Page candidate = frames.get(frameNumber).getPage();
+            candidate.age(counterBits);
+            // Advance the hand to the next frame (clockwise)
+            hand = (hand + 1) % frames.size();
+
+            if (candidate.getAgeCounter() == 0) {
+                // No reference during the whole history window: evict this page
+                return frameNumber;
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Aging(" + counterBits + ")";
+    }
+}
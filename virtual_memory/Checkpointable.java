@@ -0,0 +1,25 @@
+package virtual_memory;
+
+/**
+ * A replacement policy whose complete state can be captured and restored,
+ * so a long simulation can resume after the JVM dies.
+ */
+public interface Checkpointable extends ReplacementPolicy {
+
+    /**
+     * Captures the current state. The returned checkpoint shares no mutable
+     * data with the policy, so it can be written on another thread while the
+     * simulation keeps running.
+     *
+     * @param traceOffset number of trace references consumed so far
+     * @return a self-contained copy of the state
+     */
+    SimulationCheckpoint checkpoint(long traceOffset);
+
+    /**
+     * Replaces the current state with the checkpointed one.
+     *
+     * @param checkpoint state captured by the same policy type and frame count
+     */
+    void restore(SimulationCheckpoint checkpoint);
+}
@@ -0,0 +1,193 @@
+package virtual_memory;
+
+import java.util.ArrayList;
+
+/**
+ * Common frame table for the clock-based replacement policies.
+ * Holds the frames in circular order, an O(1) page table for hits, the clock hand
+ * and the reference and fault counters, and implements the parts every clock policy
+ * shares: a hit sets R (and M on writes), a fault fills the next empty frame while
+ * there is one, and prefetched pages enter with R=0.
+ *
+ * Once the table is full, a fault asks the subclass for a victim with selectVictim();
+ * the victim's page is dropped from the page table and the new page loaded in its place.
+ * Subclasses only implement that choice, plus the hooks below if they track extra state.
+ */
+public abstract class ClockPolicy implements ReplacementPolicy {
+
+    // Frame table, circular order for the clock hand
+    protected final ArrayList<Frame> frames;
+
+    // Resident page number -> frame index
+    protected final PageTable pageTable;
+
+    // 'hand' acts as the clock hand, pointing to the next frame to inspect
+    protected int hand = 0;
+
+    // Number of frames filled so far; frames start out empty
+    protected int loadedFrames = 0;
+
+    protected long references = 0;
+    protected long faults = 0;
+
+    /**
+     * Creates an empty frame table.
+     *
+     * @param numberOfFrames capacity of the frame buffer
+     */
+    protected ClockPolicy(int numberOfFrames) {
+        if (numberOfFrames <= 0) {
+            throw new IllegalArgumentException("numberOfFrames must be positive: " + numberOfFrames);
+        }
+        this.frames = new ArrayList<>(numberOfFrames);
+        for (int i = 0; i < numberOfFrames; i++) {
+            frames.add(new Frame(i));
+        }
+        this.pageTable = new PageTable(numberOfFrames);
+    }
+
+    @Override
+    public boolean access(int pageNumber, boolean write) {
+        // Reject bad page numbers before they are counted as references
+        PageTable.checkPageNumber(pageNumber);
+        references++;
+        onReference(pageNumber, write);
+
+        int frameNumber = pageTable.get(pageNumber);
+        if (frameNumber != PageTable.NOT_PRESENT) {
+            hit(frameNumber, write);
+            return false;
+        }
+
+        // Miss: page fault occurs, need to load (and possibly replace) a page
+        faults++;
+        handlePageFault(pageNumber, write, true);
+        return true;
+    }
+
+    @Override
+    public boolean prefetch(int pageNumber) {
+        if (pageTable.get(pageNumber) != PageTable.NOT_PRESENT) {
+            return false;
+        }
+        // Prefetched pages enter with R=0: if unused, they are among the next to go
+        handlePageFault(pageNumber, false, false);
+        return true;
+    }
+
+    /**
+     * Called for every reference after it is counted and before the page table lookup.
+     *
+     * @param pageNumber the page being accessed
+     * @param write      true if the access writes the page
+     */
+    protected void onReference(int pageNumber, boolean write) {
+    }
+
+    /**
+     * Handles a reference to a resident page: sets R to mark recent use, and M on writes.
+     *
+     * @param frameNumber frame holding the page
+     * @param write       true if the access writes the page
+     */
+    protected void hit(int frameNumber, boolean write) {
+        Page page = frames.get(frameNumber).getPage();
+        page.setReferenceBit(true);
+        if (write) {
+            page.setModifiedBit(true);
+        }
+    }
+
+    /**
+     * Chooses the frame whose page is replaced; called only when every frame is loaded.
+     * The caller removes the victim from the page table and loads the new page there.
+     *
+     * @return the victim's frame number
+     */
+    protected abstract int selectVictim();
+
+    private void handlePageFault(int newPage, boolean write, boolean referenced) {
+        int frameNumber;
+        if (loadedFrames < frames.size()) {
+            // Free frame available: no replacement needed
+            frameNumber = loadedFrames++;
+        } else {
+            frameNumber = selectVictim();
+            pageTable.remove(frames.get(frameNumber).getPage().getPageNumber());
+        }
+        load(frameNumber, newPage, write, referenced);
+    }
+
+    /**
+     * Places a new page in a frame.
+     *
+     * @param frameNumber frame to fill
+     * @param newPage     the page number to load
+     * @param write       true if the faulting access is a write (sets M)
+     * @param referenced  initial R bit: true for demand-loaded pages, false for prefetched ones
+     */
+    protected void load(int frameNumber, int newPage, boolean write, boolean referenced) {
+        frames.get(frameNumber).setPage(new Page(newPage, referenced, write));
+        pageTable.put(newPage, frameNumber);
+    }
+
+    /**
+     * Captures the frame table, hand and counters. Page state is limited to the R and M
+     * bits, so this is only a complete checkpoint for policies that keep nothing else.
+     *
+     * @param traceOffset number of trace references consumed so far
+     */
+    protected SimulationCheckpoint checkpointClock(long traceOffset) {
+        int[] pageNumbers = new int[loadedFrames];
+        byte[] bits = new byte[loadedFrames];
+        for (int i = 0; i < loadedFrames; i++) {
+            Page page = frames.get(i).getPage();
+            pageNumbers[i] = page.getPageNumber();
+            bits[i] = (byte) ((page.isReferenceBit() ? SimulationCheckpoint.REFERENCE_BIT : 0)
+                            | (page.isModifiedBit() ? SimulationCheckpoint.MODIFIED_BIT : 0));
+        }
+        return new SimulationCheckpoint(getName(), frames.size(), loadedFrames, hand,
+                traceOffset, references, faults, pageNumbers, bits);
+    }
+
+    /**
+     * Replaces the frame table, hand and counters with those captured by checkpointClock.
+     */
+    protected void restoreClock(SimulationCheckpoint checkpoint) {
+        if (checkpoint.getNumberOfFrames() != frames.size()) {
+            throw new IllegalArgumentException("Checkpoint has " + checkpoint.getNumberOfFrames()
+                    + " frames, policy has " + frames.size());
+        }
+        pageTable.clear();
+        for (int i = 0; i < frames.size(); i++) {
+            frames.get(i).setPage(null);
+        }
+        loadedFrames = checkpoint.getLoadedFrames();
+        for (int i = 0; i < loadedFrames; i++) {
+            byte bits = checkpoint.getBits(i);
+            Page page = new Page(checkpoint.getPageNumber(i),
+                    (bits & SimulationCheckpoint.REFERENCE_BIT) != 0,
+                    (bits & SimulationCheckpoint.MODIFIED_BIT) != 0);
+            frames.get(i).setPage(page);
+            pageTable.put(page.getPageNumber(), i);
+        }
+        hand = checkpoint.getHand();
+        references = checkpoint.getReferences();
+        faults = checkpoint.getFaults();
+    }
+
+    @Override
+    public long getReferenceCount() {
+        return references;
+    }
+
+    @Override
+    public long getFaultCount() {
+        return faults;
+    }
+
+    @Override
+    public int getNumberOfFrames() {
+        return frames.size();
+    }
+}
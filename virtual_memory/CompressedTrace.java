@@ -0,0 +1,533 @@
+package virtual_memory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, block-indexed file format for page reference traces.
+ *
+ * Each reference is stored as the zig-zag varint of its delta from the previous
+ * reference, so sequential and local access patterns take one byte per reference
+ * instead of four. References are grouped into fixed-size blocks; the delta chain
+ * restarts at every block, so any block can be decoded on its own.
+ *
+ * File layout (big-endian):
+ *   Header (32 bytes): magic, version, blockSize, blockCount, referenceCount (long), indexOffset (long)
+ *   Data:              encoded blocks, back to back
+ *   Index (16 bytes per block): dataOffset (long), encodedLength (int), referenceCount (int)
+ *
+ * Readers use positional reads only, so blocks can be decoded from many threads at once.
+ */
+public class CompressedTrace implements Closeable {
+
+    // "PGTR"
+    private static final int MAGIC = 0x50475452;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    // Default number of references per block
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final int blockSize;
+    private final int blockCount;
+    private final long referenceCount;
+
+    // Index, one entry per block
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockReferenceCounts;
+
+    // CRC32 of header and index, identifying this trace (e.g. for checkpoints)
+    private final long fingerprint;
+
+    /**
+     * Opens a compressed trace for reading.
+     *
+     * @param path trace file written by {@link Writer}
+     */
+    public CompressedTrace(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a compressed trace: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version + ": " + path);
+            }
+            blockSize = header.getInt();
+            blockCount = header.getInt();
+            referenceCount = header.getLong();
+            long indexOffset = header.getLong();
+
+            blockOffsets = new long[blockCount];
+            blockLengths = new int[blockCount];
+            blockReferenceCounts = new int[blockCount];
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, HEADER_SIZE);
+            crc.update(index.array(), 0, index.limit());
+            fingerprint = crc.getValue();
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = index.getLong();
+                blockLengths[i] = index.getInt();
+                blockReferenceCounts[i] = index.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int length = 20_000_000;
+        int numberOfFrames = 2048;
+        Path raw = Files.createTempFile("trace", ".raw");
+        Path compressed = Files.createTempFile("trace", ".pgtr");
+
+        try {
+            // Write a plain big-endian int trace, as produced by a tracer
+            WorkloadGenerator generator = WorkloadGenerator.phaseShift(11, 1 << 20, 4096, 1_000_000, 0.9);
+            int[] referenceString = generator.generate(length);
+            try (FileChannel out = FileChannel.open(raw, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(length * 4);
+                buffer.asIntBuffer().put(referenceString);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+
+            long start = System.nanoTime();
+            convert(raw, compressed, DEFAULT_BLOCK_SIZE);
+            double convertSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("\n\n**** Compressed Trace ***");
+            System.out.println("Number of references: " + length);
+            System.out.printf("Raw size:        %,d bytes%n", Files.size(raw));
+            System.out.printf("Compressed size: %,d bytes (%.1fx)%n", Files.size(compressed),
+                    (double) Files.size(raw) / Files.size(compressed));
+            System.out.printf("Convert:         %.2f s%n", convertSeconds);
+
+            try (CompressedTrace trace = new CompressedTrace(compressed)) {
+                start = System.nanoTime();
+                int[] decoded = trace.decodeAll();
+                double decodeSeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Parallel decode: %.1f M refs/s (matches: %b)%n",
+                        length / decodeSeconds / 1e6, Arrays.equals(decoded, referenceString));
+
+                start = System.nanoTime();
+                ReplacementPolicy policy = new SecondChance.Policy(numberOfFrames);
+                trace.replay(policy);
+                double replaySeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Streaming replay (Second Chance, %d frames): %.2f s, fault rate %.3f%%%n",
+                        numberOfFrames, replaySeconds, 100.0 * policy.getFaultCount() / policy.getReferenceCount());
+            }
+        } finally {
+            Files.deleteIfExists(raw);
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    /**
+     * Converts a plain trace of big-endian 32-bit page numbers into the compressed format.
+     *
+     * @param rawTrace   source file of 4-byte page numbers
+     * @param compressed destination file
+     * @param blockSize  references per block
+     */
+    public static void convert(Path rawTrace, Path compressed, int blockSize) throws IOException {
+        try (FileChannel in = FileChannel.open(rawTrace, StandardOpenOption.READ);
+             Writer writer = new Writer(compressed, blockSize)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            int[] chunk = new int[buffer.capacity() / 4];
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                int count = buffer.remaining() / 4;
+                buffer.asIntBuffer().get(chunk, 0, count);
+                writer.write(chunk, 0, count);
+                // Keep a trailing partial int (if any) for the next read
+                buffer.position(count * 4);
+                buffer.compact();
+            }
+            if (buffer.position() != 0) {
+                throw new IOException("Raw trace length is not a multiple of 4 bytes: " + rawTrace);
+            }
+        }
+    }
+
+    /**
+     * Returns the total number of references in the trace.
+     */
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * Returns a checksum of the header and block index. Encoded block lengths depend on
+     * the references, so different traces almost always have different fingerprints.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of blocks in the trace.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the number of references per block (the last block may hold fewer).
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the index of the block containing the given reference, for seeking.
+     *
+     * @param referenceIndex position in the trace
+     */
+    public int blockOf(long referenceIndex) {
+        if (referenceIndex < 0 || referenceIndex >= referenceCount) {
+            throw new IndexOutOfBoundsException("Reference " + referenceIndex + " of " + referenceCount);
+        }
+        return (int) (referenceIndex / blockSize);
+    }
+
+    /**
+     * Decodes one block. Safe to call from several threads at once.
+     *
+     * @param block       block index
+     * @param destination array to receive the references
+     * @param offset      first index in destination to write
+     * @return the number of references decoded
+     * @throws IOException if the block cannot be read or does not decode to its indexed length
+     */
+    public int decodeBlock(int block, int[] destination, int offset) throws IOException {
+        ByteBuffer encoded = readFully(channel, blockOffsets[block], blockLengths[block]);
+        byte[] bytes = encoded.array();
+        int length = bytes.length;
+        int count = blockReferenceCounts[block];
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            // Varint: 7 data bits per byte, high bit set on all but the last byte (at most 5 bytes)
+            if (position == length) {
+                throw corruptBlock(block);
+            }
+            int b = bytes[position++];
+            int zigzag = b & 0x7f;
+            for (int shift = 7; b < 0; shift += 7) {
+                if (position == length || shift > 28) {
+                    throw corruptBlock(block);
+                }
+                b = bytes[position++];
+                zigzag |= (b & 0x7f) << shift;
+            }
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            destination[offset + i] = previous;
+        }
+        if (position != length) {
+            throw corruptBlock(block);
+        }
+        return count;
+    }
+
+    private IOException corruptBlock(int block) {
+        return new IOException("Corrupt trace block " + block + ": does not decode to "
+                + blockReferenceCounts[block] + " references in " + blockLengths[block] + " bytes");
+    }
+
+    /**
+     * Decodes the whole trace into memory, decoding blocks in parallel.
+     * Only use this for traces that fit in the heap; prefer iterator() otherwise.
+     */
+    public int[] decodeAll() throws IOException {
+        if (referenceCount > Integer.MAX_VALUE - 8) {
+            throw new IOException("Trace too large to decode into one array: " + referenceCount);
+        }
+        int[] references = new int[(int) referenceCount];
+        try {
+            IntStream.range(0, blockCount).parallel().forEach(block -> {
+                try {
+                    decodeBlock(block, references, block * blockSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return references;
+    }
+
+    /**
+     * Returns a streaming iterator over the whole trace.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Returns a streaming iterator starting at the given reference.
+     * Holds at most two decoded blocks in memory; the next block is decoded
+     * on a background thread while the current one is consumed. Read and decode
+     * failures surface from hasNext()/nextInt() as an UncheckedIOException.
+     *
+     * @param fromReference index of the first reference to return
+     */
+    public PrimitiveIterator.OfInt iterator(long fromReference) {
+        if (fromReference < 0 || fromReference > referenceCount) {
+            throw new IndexOutOfBoundsException("Reference " + fromReference + " of " + referenceCount);
+        }
+        int firstBlock = (int) (fromReference / blockSize);
+        int skip = (int) (fromReference % blockSize);
+
+        return new PrimitiveIterator.OfInt() {
+            private int nextBlock = firstBlock;
+            private int[] current = new int[0];
+            private int position = 0;
+            private int limit = 0;
+            private CompletableFuture<int[]> pending = decodeAsync(nextBlock++);
+
+            {
+                advanceBlock();
+                position = Math.min(skip, limit);
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (position < limit) {
+                    return true;
+                }
+                return advanceBlock();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current[position++];
+            }
+
+            private boolean advanceBlock() {
+                if (pending == null) {
+                    return false;
+                }
+                try {
+                    current = pending.join();
+                } catch (CompletionException e) {
+                    pending = null;
+                    if (e.getCause() instanceof UncheckedIOException) {
+                        throw (UncheckedIOException) e.getCause();
+                    }
+                    throw e;
+                }
+                position = 0;
+                limit = current.length;
+                pending = decodeAsync(nextBlock++);
+                return limit > 0 || advanceBlock();
+            }
+        };
+    }
+
+    /**
+     * Replays the whole trace through a replacement policy without materializing it.
+     *
+     * @param policy policy to drive
+     * @return the number of page faults during the replay
+     */
+    public long replay(ReplacementPolicy policy) throws IOException {
+        long faults = 0;
+        int[] block = new int[blockSize];
+        for (int b = 0; b < blockCount; b++) {
+            int count = decodeBlock(b, block, 0);
+            for (int i = 0; i < count; i++) {
+                if (policy.access(block[i])) {
+                    faults++;
+                }
+            }
+        }
+        return faults;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Starts decoding a block on the common pool, or returns null past the last block.
+     */
+    private CompletableFuture<int[]> decodeAsync(int block) {
+        if (block >= blockCount) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                int[] references = new int[blockReferenceCounts[block]];
+                decodeBlock(block, references, 0);
+                return references;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Trace truncated at byte " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes references into the compressed format, one block at a time.
+     * The header and index are written on close().
+     */
+    public static class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final int blockSize;
+
+        // Encoded bytes of the block being built (worst case 5 bytes per reference)
+        private final byte[] blockBuffer;
+        private int blockBytes = 0;
+        private int blockReferences = 0;
+        private int previous = 0;
+
+        // Index entries collected so far, written after the data
+        private long[] blockOffsets = new long[64];
+        private int[] blockLengths = new int[64];
+        private int[] blockReferenceCounts = new int[64];
+        private int blockCount = 0;
+
+        private long referenceCount = 0;
+        private long dataPosition = HEADER_SIZE;
+
+        /**
+         * Creates (or truncates) a compressed trace file.
+         *
+         * @param path      destination file
+         * @param blockSize references per block
+         */
+        public Writer(Path path, int blockSize) throws IOException {
+            if (blockSize <= 0) {
+                throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+            }
+            this.blockSize = blockSize;
+            this.blockBuffer = new byte[blockSize * 5];
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Appends one reference.
+         *
+         * @param pageNumber page number to record (non-negative)
+         */
+        public void write(int pageNumber) throws IOException {
+            if (pageNumber < 0) {
+                throw new IllegalArgumentException("Page numbers must be non-negative: " + pageNumber);
+            }
+            int delta = pageNumber - previous;
+            previous = pageNumber;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7f) != 0) {
+                blockBuffer[blockBytes++] = (byte) ((zigzag & 0x7f) | 0x80);
+                zigzag >>>= 7;
+            }
+            blockBuffer[blockBytes++] = (byte) zigzag;
+            referenceCount++;
+            if (++blockReferences == blockSize) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Appends references[offset .. offset+length).
+         */
+        public void write(int[] references, int offset, int length) throws IOException {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                write(references[i]);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (blockReferences > 0) {
+                    flushBlock();
+                }
+                // Index after the data
+                long indexOffset = dataPosition;
+                ByteBuffer index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE);
+                for (int i = 0; i < blockCount; i++) {
+                    index.putLong(blockOffsets[i]).putInt(blockLengths[i]).putInt(blockReferenceCounts[i]);
+                }
+                index.flip();
+                writeFully(index, indexOffset);
+
+                // Header last, so a crashed writer never leaves a file that looks complete
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(blockSize).putInt(blockCount)
+                      .putLong(referenceCount).putLong(indexOffset);
+                header.flip();
+                writeFully(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                blockLengths = Arrays.copyOf(blockLengths, blockCount * 2);
+                blockReferenceCounts = Arrays.copyOf(blockReferenceCounts, blockCount * 2);
+            }
+            blockOffsets[blockCount] = dataPosition;
+            blockLengths[blockCount] = blockBytes;
+            blockReferenceCounts[blockCount] = blockReferences;
+            blockCount++;
+
+            writeFully(ByteBuffer.wrap(blockBuffer, 0, blockBytes), dataPosition);
+            dataPosition += blockBytes;
+
+            // Restart the delta chain so each block decodes independently
+            blockBytes = 0;
+            blockReferences = 0;
+            previous = 0;
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+}
@@ -12,6 +12,9 @@ public class Frame {
     // The page currently loaded in this frame; null if the frame is empty
     private Page page;
 
+    // Virtual time (reference count) at which the page was last seen in use; used by WSClock
+    private long lastUseTime;
+
     /**
      * Constructs a new, empty Frame with the given frame number.
      *
@@ -48,4 +51,22 @@ public class Frame {
     public void setPage(Page page) {
         this.page = page;
     }
+
+    /**
+     * Returns the virtual time at which this frame's page was last known to be in use.
+     *
+     * @return the last-use timestamp
+     */
+    public long getLastUseTime() {
+        return lastUseTime;
+    }
+
+    /**
+     * Records the virtual time at which this frame's page was last known to be in use.
+     *
+     * @param lastUseTime the new last-use timestamp
+     */
+    public void setLastUseTime(long lastUseTime) {
+        this.lastUseTime = lastUseTime;
+    }
 }
@@ -0,0 +1,437 @@
+package virtual_memory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-process paging simulation: several processes, each with its own page table and
+ * reference string, run concurrently (one thread per process, virtual threads when the
+ * runtime supports them) and compete for one shared pool of frames using the clock rule.
+ *
+ * Replacement scope:
+ *   - Global: one shared clock hand sweeps all frames; a fault may evict any process's page.
+ *   - Local:  each process only evicts its own pages, within a frame quota. Quotas are
+ *             rebalanced by page-fault frequency (PFF): a process faulting above the upper
+ *             threshold takes frames from the unassigned pool, one below the lower threshold
+ *             gives frames back. A process that finishes frees its frames and returns its
+ *             whole quota.
+ *
+ * The frame table is lock-free. Each frame holds an owner word (process id and page number)
+ * that is claimed with compare-and-set, and the reference bits live in an AtomicIntegerArray.
+ * A page table entry is only trusted if the frame's owner word still matches, so a process
+ * never has to be told that another process stole one of its frames.
+ */
+public class MultiProcessSimulator {
+
+    // Owner word of a frame that holds no page
+    private static final long FREE = -1L;
+
+    // Owner word per frame: (processId << 32) | pageNumber, or FREE
+    private final AtomicLongArray frameOwner;
+
+    // Reference bit per frame (0 or 1)
+    private final AtomicIntegerArray referenceBits;
+
+    // Shared clock hand for global replacement
+    private final AtomicInteger globalHand = new AtomicInteger();
+
+    // Where the next search for a free frame starts (local replacement)
+    private final AtomicInteger freeHand = new AtomicInteger();
+
+    // Frames not assigned to any process's quota (local replacement)
+    private final AtomicInteger unassignedFrames;
+
+    private final int numberOfFrames;
+    private final boolean globalReplacement;
+
+    // PFF parameters: window length in references, fault-rate thresholds, and quota step
+    private final int pffWindow;
+    private final double lowerFaultRate;
+    private final double upperFaultRate;
+    private final int pffStep;
+
+    private final List<SimulatedProcess> processes = new ArrayList<>();
+
+    /**
+     * Creates a simulator with default PFF parameters
+     * (window 10,000 references, thresholds 1% and 5%, step 8 frames).
+     *
+     * @param numberOfFrames    size of the shared frame pool
+     * @param globalReplacement true for global replacement, false for local replacement with PFF
+     */
+    public MultiProcessSimulator(int numberOfFrames, boolean globalReplacement) {
+        this(numberOfFrames, globalReplacement, 10_000, 0.01, 0.05, 8);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param numberOfFrames    size of the shared frame pool
+     * @param globalReplacement true for global replacement, false for local replacement with PFF
+     * @param pffWindow         references between PFF quota adjustments (local replacement)
+     * @param lowerFaultRate    below this fault rate a process gives frames back
+     * @param upperFaultRate    above this fault rate a process asks for more frames
+     * @param pffStep           frames moved per adjustment
+     */
+    public MultiProcessSimulator(int numberOfFrames, boolean globalReplacement, int pffWindow,
+                                 double lowerFaultRate, double upperFaultRate, int pffStep) {
+        if (numberOfFrames <= 0) {
+            throw new IllegalArgumentException("numberOfFrames must be positive: " + numberOfFrames);
+        }
+        if (lowerFaultRate > upperFaultRate) {
+            throw new IllegalArgumentException("lowerFaultRate must not exceed upperFaultRate");
+        }
+        this.numberOfFrames = numberOfFrames;
+        this.globalReplacement = globalReplacement;
+        this.pffWindow = pffWindow;
+        this.lowerFaultRate = lowerFaultRate;
+        this.upperFaultRate = upperFaultRate;
+        this.pffStep = pffStep;
+        this.frameOwner = new AtomicLongArray(numberOfFrames);
+        this.referenceBits = new AtomicIntegerArray(numberOfFrames);
+        for (int i = 0; i < numberOfFrames; i++) {
+            frameOwner.set(i, FREE);
+        }
+        this.unassignedFrames = new AtomicInteger(numberOfFrames);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int numberOfFrames = 4096;
+        int referencesPerProcess = 2_000_000;
+
+        System.out.println("\n\n**** Multi-Process Paging ***");
+        System.out.println("Number of frames: " + numberOfFrames);
+        System.out.println("References per process: " + referencesPerProcess);
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors() + "\n");
+
+        for (boolean global : new boolean[] {true, false}) {
+            for (int numberOfProcesses = 1; numberOfProcesses <= 8; numberOfProcesses *= 2) {
+                MultiProcessSimulator simulator = new MultiProcessSimulator(numberOfFrames, global);
+                for (int p = 0; p < numberOfProcesses; p++) {
+                    // Processes differ in working-set size, so PFF has something to rebalance
+                    int workingSet = 256 << (p % 4);
+                    WorkloadGenerator generator =
+                            WorkloadGenerator.phaseShift(p + 1, 1 << 16, workingSet, 500_000, 0.8);
+                    simulator.addProcess(generator.generate(referencesPerProcess));
+                }
+
+                long start = System.nanoTime();
+                simulator.run();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("%-6s | processes %d | fault rate %6.3f%% | %7.1f M refs/s%n",
+                        global ? "Global" : "Local", numberOfProcesses,
+                        100.0 * simulator.getFaultCount() / simulator.getReferenceCount(),
+                        simulator.getReferenceCount() / seconds / 1e6);
+                if (numberOfProcesses == 8) {
+                    simulator.printReport();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a process that will replay the given reference string.
+     *
+     * @param referenceString page numbers (non-negative) the process accesses
+     * @return the new process id
+     */
+    public int addProcess(int[] referenceString) {
+        SimulatedProcess process = new SimulatedProcess(processes.size(), referenceString);
+        processes.add(process);
+        return process.processId;
+    }
+
+    /**
+     * Runs all processes concurrently and waits for them to finish.
+     */
+    public void run() throws InterruptedException {
+        if (!globalReplacement) {
+            if (processes.size() > numberOfFrames) {
+                throw new IllegalStateException("Local replacement needs at least one frame per process");
+            }
+            // Start with an equal split; the remainder stays unassigned for PFF to hand out
+            int share = numberOfFrames / Math.max(1, processes.size());
+            for (SimulatedProcess process : processes) {
+                process.quota = share;
+            }
+            unassignedFrames.set(numberOfFrames - share * processes.size());
+        }
+
+        ExecutorService executor = newProcessExecutor();
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(processes);
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Simulated process failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Prints per-process fault counts, fault rates and resident set sizes at exit.
+     */
+    public void printReport() {
+        System.out.printf("%-9s | %-10s | %-8s | %-10s | %-8s%n", "Process", "References", "Faults",
+                "Fault rate", "Resident");
+        for (SimulatedProcess process : processes) {
+            System.out.printf("%-9d | %-10d | %-8d | %9.3f%% | %-8d%n", process.processId,
+                    process.references, process.faults,
+                    100.0 * process.faults / Math.max(1, process.references), process.residentAtExit);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Returns the total number of references processed by all processes.
+     */
+    public long getReferenceCount() {
+        long total = 0;
+        for (SimulatedProcess process : processes) {
+            total += process.references;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total number of page faults across all processes.
+     */
+    public long getFaultCount() {
+        long total = 0;
+        for (SimulatedProcess process : processes) {
+            total += process.faults;
+        }
+        return total;
+    }
+
+    /**
+     * Returns an executor that runs each task on its own virtual thread when the
+     * runtime supports them (Java 21+), or on a cached platform thread pool otherwise.
+     */
+    private static ExecutorService newProcessExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static long ownerWord(int processId, int pageNumber) {
+        return ((long) processId << 32) | (pageNumber & 0xffffffffL);
+    }
+
+    /**
+     * One simulated process: its own page table, reference string and counters.
+     * Only the process's own thread touches its page table and counters.
+     */
+    private class SimulatedProcess implements Callable<Void> {
+
+        private final int processId;
+        private final int[] referenceString;
+
+        // Page number -> frame index; entries may be stale after another process steals the frame
+        private final PageTable pageTable = new PageTable(64);
+
+        // Frames currently held by this process (updated by other threads under global replacement)
+        private final AtomicInteger resident = new AtomicInteger();
+
+        // Resident set size when the reference string ran out (for the report)
+        private int residentAtExit;
+
+        // Local replacement: the frames this process owns, its clock hand over them, and its quota
+        private int[] ownFrames = new int[16];
+        private int ownFrameCount = 0;
+        private int localHand = 0;
+        private int quota;
+
+        private long references = 0;
+        private long faults = 0;
+
+        // Faults within the current PFF window
+        private long windowFaults = 0;
+
+        SimulatedProcess(int processId, int[] referenceString) {
+            this.processId = processId;
+            this.referenceString = referenceString;
+        }
+
+        @Override
+        public Void call() {
+            for (int pageNumber : referenceString) {
+                access(pageNumber);
+                if (!globalReplacement && references % pffWindow == 0) {
+                    adjustQuota();
+                }
+            }
+            residentAtExit = resident.get();
+            if (!globalReplacement) {
+                exit();
+            }
+            return null;
+        }
+
+        /**
+         * Local replacement: frees this process's frames and returns its quota to the
+         * unassigned pool, so processes still running can grow into them.
+         */
+        private void exit() {
+            for (int i = 0; i < ownFrameCount; i++) {
+                releaseFrame(ownFrames[i]);
+                resident.decrementAndGet();
+            }
+            ownFrameCount = 0;
+            localHand = 0;
+            unassignedFrames.addAndGet(quota);
+            quota = 0;
+        }
+
+        private void access(int pageNumber) {
+            references++;
+            long key = ownerWord(processId, pageNumber);
+
+            int frameNumber = pageTable.get(pageNumber);
+            if (frameNumber != PageTable.NOT_PRESENT) {
+                if (frameOwner.get(frameNumber) == key) {
+                    // Hit: set R only if clear, to avoid needless cache-line writes
+                    if (referenceBits.get(frameNumber) == 0) {
+                        referenceBits.set(frameNumber, 1);
+                    }
+                    return;
+                }
+                // Stale mapping: another process took the frame
+                pageTable.remove(pageNumber);
+            }
+
+            // Miss: page fault occurs
+            faults++;
+            windowFaults++;
+            frameNumber = globalReplacement ? claimGlobal(key) : claimLocal(key);
+            pageTable.put(pageNumber, frameNumber);
+        }
+
+        /**
+         * Global clock: sweep the shared hand over all frames, clearing R bits,
+         * until a free or unreferenced frame is claimed with compare-and-set.
+         */
+        private int claimGlobal(long key) {
+            while (true) {
+                int frameNumber = Math.floorMod(globalHand.getAndIncrement(), numberOfFrames);
+                long owner = frameOwner.get(frameNumber);
+
+                if (owner != FREE && referenceBits.get(frameNumber) == 1) {
+                    // Second chance: clear R and move on
+                    referenceBits.compareAndSet(frameNumber, 1, 0);
+                    continue;
+                }
+                if (frameOwner.compareAndSet(frameNumber, owner, key)) {
+                    referenceBits.set(frameNumber, 1);
+                    if (owner != FREE) {
+                        processes.get((int) (owner >>> 32)).resident.decrementAndGet();
+                    }
+                    resident.incrementAndGet();
+                    return frameNumber;
+                }
+                // Lost the race for this frame to another process; keep sweeping
+            }
+        }
+
+        /**
+         * Local clock: take a free frame while under quota, otherwise run the
+         * clock over this process's own frames only.
+         */
+        private int claimLocal(long key) {
+            if (ownFrameCount < quota) {
+                int frameNumber = claimFreeFrame(key);
+                if (frameNumber >= 0) {
+                    addOwnFrame(frameNumber);
+                    return frameNumber;
+                }
+            }
+            if (ownFrameCount == 0) {
+                throw new IllegalStateException("Process " + processId + " has no frame to replace");
+            }
+            while (true) {
+                int frameNumber = ownFrames[localHand];
+                if (referenceBits.compareAndSet(frameNumber, 1, 0)) {
+                    localHand = (localHand + 1) % ownFrameCount;
+                    continue;
+                }
+                frameOwner.set(frameNumber, key);
+                referenceBits.set(frameNumber, 1);
+                localHand = (localHand + 1) % ownFrameCount;
+                return frameNumber;
+            }
+        }
+
+        private int claimFreeFrame(long key) {
+            // Quotas never exceed the pool, so a free frame exists; other processes
+            // advance the same hand, hence two sweeps' worth of attempts
+            for (int i = 0; i < 2 * numberOfFrames; i++) {
+                int frameNumber = Math.floorMod(freeHand.getAndIncrement(), numberOfFrames);
+                if (frameOwner.get(frameNumber) == FREE && frameOwner.compareAndSet(frameNumber, FREE, key)) {
+                    referenceBits.set(frameNumber, 1);
+                    resident.incrementAndGet();
+                    return frameNumber;
+                }
+            }
+            return -1;
+        }
+
+        private void addOwnFrame(int frameNumber) {
+            if (ownFrameCount == ownFrames.length) {
+                ownFrames = Arrays.copyOf(ownFrames, ownFrameCount * 2);
+            }
+            ownFrames[ownFrameCount++] = frameNumber;
+        }
+
+        private void releaseFrame(int frameNumber) {
+            referenceBits.set(frameNumber, 0);
+            frameOwner.set(frameNumber, FREE);
+        }
+
+        /**
+         * PFF: compare this window's fault rate against the thresholds and move
+         * frames between this process's quota and the unassigned pool.
+         */
+        private void adjustQuota() {
+            double faultRate = (double) windowFaults / pffWindow;
+            windowFaults = 0;
+
+            if (faultRate > upperFaultRate) {
+                int available = unassignedFrames.get();
+                int grant = Math.min(pffStep, available);
+                if (grant > 0 && unassignedFrames.compareAndSet(available, available - grant)) {
+                    quota += grant;
+                }
+            } else if (faultRate < lowerFaultRate && quota > pffStep) {
+                // Release frames before returning them, so sum(resident) <= sum(quota) always holds
+                quota -= pffStep;
+                while (ownFrameCount > quota) {
+                    int victim = ownFrames[--ownFrameCount];
+                    releaseFrame(victim);
+                    resident.decrementAndGet();
+                }
+                if (localHand >= Math.max(1, ownFrameCount)) {
+                    localHand = 0;
+                }
+                unassignedFrames.addAndGet(pffStep);
+            }
+        }
+    }
+}
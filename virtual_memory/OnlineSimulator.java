@@ -0,0 +1,260 @@
+package virtual_memory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * Push-based, online page replacement simulation.
+ *
+ * References arrive one at a time through access(), in batches through process(), or as
+ * a {@link Flow.Subscriber} of int[] (for example from a live service emitting page-access
+ * events). Each batch is run through a {@link ReplacementPolicy} and a {@link Result}
+ * with per-reference hit/fault flags and running statistics is published downstream.
+ * The running statistics are also available at any time from the getters.
+ *
+ * An int[] batch carries no write flags, so the Flow path treats every reference as a
+ * read: the M bit is never set and ThirdChance / WSClock dirty-page handling stays idle.
+ * Feed write-aware streams through access(page, write) or process(pages, writes).
+ *
+ * Backpressure: upstream batches are requested one at a time, and only after the
+ * previous batch's result has been accepted downstream, so a slow consumer slows the
+ * producer instead of growing a queue. Memory use is constant in the length of the stream.
+ */
+public class OnlineSimulator implements Flow.Processor<int[], OnlineSimulator.Result> {
+
+    // Weight of the newest reference in the recent fault rate (window of ~1/alpha references)
+    private final double alpha;
+
+    private final ReplacementPolicy policy;
+    private final SubmissionPublisher<Result> publisher;
+
+    private Flow.Subscription subscription;
+
+    // Exponentially weighted moving average of the fault indicator
+    private double recentFaultRate = 0;
+
+    /**
+     * Creates an online simulator with a recent-fault-rate window of about 10,000 references.
+     *
+     * @param policy policy that decides hits, faults and evictions
+     */
+    public OnlineSimulator(ReplacementPolicy policy) {
+        this(policy, 10_000, Flow.defaultBufferSize());
+    }
+
+    /**
+     * Creates an online simulator.
+     *
+     * @param policy            policy that decides hits, faults and evictions
+     * @param window            approximate number of references the recent fault rate covers
+     * @param resultBufferSize  results buffered per downstream subscriber before backpressure applies
+     */
+    public OnlineSimulator(ReplacementPolicy policy, int window, int resultBufferSize) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.policy = policy;
+        this.alpha = 1.0 / window;
+        // Results are delivered asynchronously; submit() blocks when a subscriber's buffer is full
+        this.publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), resultBufferSize);
+    }
+
+    public static void main(String[] args) {
+        int numberOfFrames = 1024;
+        int batchSize = 4096;
+        int numberOfBatches = 2000;
+
+        OnlineSimulator simulator = new OnlineSimulator(new SecondChance.Policy(numberOfFrames));
+        CompletableFuture<Void> done = simulator.consume(result -> {
+            if (result.getReferenceCount() % (200L * batchSize) == 0) {
+                System.out.printf("References %9d | faults %8d | fault rate %6.3f%% | recent %6.3f%%%n",
+                        result.getReferenceCount(), result.getFaultCount(),
+                        100.0 * result.getFaultCount() / result.getReferenceCount(),
+                        100.0 * result.getRecentFaultRate());
+            }
+        });
+
+        System.out.println("\n\n**** Online Simulation ***");
+        System.out.println("Number of frames: " + numberOfFrames);
+        System.out.println("Batch size: " + batchSize + "\n");
+
+        // A live source of page-access events, here a phase-changing synthetic workload
+        WorkloadGenerator generator = WorkloadGenerator.phaseShift(3, 1 << 16, 1536, 1_000_000, 0.9);
+        try (SubmissionPublisher<int[]> source = new SubmissionPublisher<>()) {
+            source.subscribe(simulator);
+            for (int i = 0; i < numberOfBatches; i++) {
+                // submit() blocks while the simulator is behind: backpressure reaches the producer
+                source.submit(generator.generate(batchSize));
+            }
+        }
+        done.join();
+        System.out.printf("%nFinal: references %d, faults %d, recent fault rate %6.3f%%%n",
+                simulator.getReferenceCount(), simulator.getFaultCount(), 100.0 * simulator.getRecentFaultRate());
+    }
+
+    /**
+     * Processes a single reference synchronously.
+     *
+     * @param pageNumber the page being accessed
+     * @param write      true for a write access
+     * @return true if the reference caused a page fault
+     */
+    public synchronized boolean access(int pageNumber, boolean write) {
+        boolean fault = policy.access(pageNumber, write);
+        recentFaultRate += alpha * ((fault ? 1.0 : 0.0) - recentFaultRate);
+        return fault;
+    }
+
+    /**
+     * Processes a batch of read references synchronously.
+     *
+     * @param pageNumbers the pages being accessed, in order
+     * @return per-reference results and running statistics
+     */
+    public Result process(int[] pageNumbers) {
+        return process(pageNumbers, null);
+    }
+
+    /**
+     * Processes a batch of references synchronously.
+     *
+     * @param pageNumbers the pages being accessed, in order
+     * @param writes      write flag per reference, or null if all are reads
+     * @return per-reference results and running statistics
+     */
+    public synchronized Result process(int[] pageNumbers, boolean[] writes) {
+        if (writes != null && writes.length != pageNumbers.length) {
+            throw new IllegalArgumentException("writes has " + writes.length + " flags for "
+                    + pageNumbers.length + " references");
+        }
+        boolean[] faults = new boolean[pageNumbers.length];
+        double rate = recentFaultRate;
+        for (int i = 0; i < pageNumbers.length; i++) {
+            boolean fault = policy.access(pageNumbers[i], writes != null && writes[i]);
+            faults[i] = fault;
+            rate += alpha * ((fault ? 1.0 : 0.0) - rate);
+        }
+        recentFaultRate = rate;
+        return new Result(faults, policy.getReferenceCount(), policy.getFaultCount(), rate);
+    }
+
+    /**
+     * Returns the total number of references processed so far.
+     */
+    public synchronized long getReferenceCount() {
+        return policy.getReferenceCount();
+    }
+
+    /**
+     * Returns the total number of page faults so far.
+     */
+    public synchronized long getFaultCount() {
+        return policy.getFaultCount();
+    }
+
+    /**
+     * Returns the exponentially weighted fault rate over roughly the last window references.
+     */
+    public synchronized double getRecentFaultRate() {
+        return recentFaultRate;
+    }
+
+    /**
+     * Subscribes a consumer to the results and returns a future completed when the stream ends.
+     *
+     * @param consumer called for every published result
+     */
+    public CompletableFuture<Void> consume(Consumer<? super Result> consumer) {
+        return publisher.consume(consumer);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Result> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            // Only one upstream source per simulator
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(int[] pageNumbers) {
+        // Batches are read-only (see class comment). Blocks while downstream buffers are full, delaying the next upstream request
+        publisher.submit(process(pageNumbers));
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        publisher.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        publisher.close();
+    }
+
+    /**
+     * Outcome of one batch: which references faulted, plus running statistics
+     * over everything the simulator has seen so far.
+     */
+    public static class Result {
+
+        private final boolean[] faults;
+        private final long referenceCount;
+        private final long faultCount;
+        private final double recentFaultRate;
+
+        Result(boolean[] faults, long referenceCount, long faultCount, double recentFaultRate) {
+            this.faults = faults;
+            this.referenceCount = referenceCount;
+            this.faultCount = faultCount;
+            this.recentFaultRate = recentFaultRate;
+        }
+
+        /**
+         * Returns the number of references in this batch.
+         */
+        public int size() {
+            return faults.length;
+        }
+
+        /**
+         * Returns true if the i-th reference of this batch caused a page fault.
+         */
+        public boolean isFault(int index) {
+            return faults[index];
+        }
+
+        /**
+         * Returns the total number of references processed so far.
+         */
+        public long getReferenceCount() {
+            return referenceCount;
+        }
+
+        /**
+         * Returns the total number of page faults so far.
+         */
+        public long getFaultCount() {
+            return faultCount;
+        }
+
+        /**
+         * Returns the exponentially weighted fault rate over roughly the last window references.
+         */
+        public double getRecentFaultRate() {
+            return recentFaultRate;
+        }
+    }
+}
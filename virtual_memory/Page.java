@@ -16,6 +16,9 @@ public class Page implements Cloneable {
     // Modified bit: set to true when page is written to (dirty), cleared when written back
     private boolean modifiedBit;
 
+    // Aging counter: shift register of past reference bits, most recent in the highest bit
+    private int ageCounter;
+
     /**
      * Constructs a new Page with the given page number.
      * Reference and modified bits default to false.
@@ -110,6 +113,24 @@ public class Page implements Cloneable {
         this.modifiedBit = false;
     }
 
+    /**
+     * Returns the aging counter (reference history, most recent period in the highest bit).
+     */
+    public int getAgeCounter() {
+        return ageCounter;
+    }
+
+    /**
+     * Ages the page by one period: shifts the counter right, moves the reference bit
+     * into the highest of counterBits bits, and clears the reference bit.
+     *
+     * @param counterBits width of the aging counter (1 to 31)
+     */
+    public void age(int counterBits) {
+        ageCounter = (ageCounter >>> 1) | ((referenceBit ? 1 : 0) << (counterBits - 1));
+        referenceBit = false;
+    }
+
     /**
      * Resets bits according to a simple state transition:
      *  - (R=1, M=1) → (R=0, M=1): clear R, keep M (dirty but no recent ref)
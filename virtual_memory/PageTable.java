@@ -0,0 +1,160 @@
+package virtual_memory;
+
+import java.util.Arrays;
+
+/**
+ * Maps resident page numbers to frame indices.
+ * Open addressing with linear probing over primitive int arrays, so lookups on the
+ * hit path are O(1) and allocation-free (the table-printing simulators scan every frame instead).
+ * Page numbers must be non-negative.
+ */
+public class PageTable {
+
+    // Marks an unused slot in the keys array
+    private static final int EMPTY = -1;
+
+    // Returned by get() when the page is not resident
+    public static final int NOT_PRESENT = -1;
+
+    // keys[i] = page number stored in slot i, or EMPTY
+    private int[] keys;
+
+    // values[i] = frame index of keys[i]
+    private int[] values;
+
+    // Number of mappings currently stored
+    private int size;
+
+    /**
+     * Creates a page table sized for the given number of resident pages.
+     *
+     * @param expectedSize typical number of mappings (e.g. the number of frames)
+     */
+    public PageTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the frame index holding the given page, or NOT_PRESENT.
+     *
+     * @param pageNumber page to look up (non-negative)
+     */
+    public int get(int pageNumber) {
+        // A negative key would match the EMPTY marker
+        checkPageNumber(pageNumber);
+        int mask = keys.length - 1;
+        for (int slot = hash(pageNumber) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == pageNumber) {
+                return values[slot];
+            }
+            if (key == EMPTY) {
+                return NOT_PRESENT;
+            }
+        }
+    }
+
+    /**
+     * Maps a page to a frame, replacing any existing mapping for that page.
+     *
+     * @param pageNumber  page number (non-negative)
+     * @param frameNumber frame index holding the page
+     */
+    public void put(int pageNumber, int frameNumber) {
+        checkPageNumber(pageNumber);
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(pageNumber) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != pageNumber) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = pageNumber;
+            size++;
+        }
+        values[slot] = frameNumber;
+    }
+
+    /**
+     * Removes the mapping for a page, if present.
+     * Uses backward-shift deletion so no tombstones accumulate.
+     *
+     * @param pageNumber page to unmap (non-negative)
+     */
+    public void remove(int pageNumber) {
+        checkPageNumber(pageNumber);
+        int mask = keys.length - 1;
+        int slot = hash(pageNumber) & mask;
+        while (keys[slot] != pageNumber) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+
+        // Shift following entries of the probe run back into the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry if its home slot is not cyclically within (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of mapped pages.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Throws IllegalArgumentException for a negative page number, which would collide with EMPTY.
+     */
+    static void checkPageNumber(int pageNumber) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page numbers must be non-negative: " + pageNumber);
+        }
+    }
+
+    /**
+     * Scrambles page numbers so sequential pages do not form long probe runs.
+     */
+    private static int hash(int pageNumber) {
+        int h = pageNumber * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,293 @@
+package virtual_memory;
+
+/**
+ * Optional readahead stage in front of any {@link ReplacementPolicy}.
+ *
+ * A small stream table tracks recent access streams. An access that continues a
+ * stream (same page delta, "stride", as last time) raises its confidence; an access
+ * near a stream's last page re-trains its stride. New streams are only started on page
+ * faults, so hits in a hot working set do not churn the table.
+ *
+ * Once a stream is confident, the next readaheadPages pages along its stride are loaded
+ * in one batch through {@link ReplacementPolicy#prefetch(int)}. They enter the clock with
+ * R=0, so useless prefetches are evicted first. The batch is topped up when the stream
+ * gets within half a window of its end, so a pure scan runs without faults.
+ *
+ * Statistics: prefetch batches, pages prefetched, prefetch hits (first reference to a
+ * prefetched page found it resident) and wasted prefetches (evicted before first use, or
+ * still unused after the tracking ring wrapped).
+ */
+public class Readahead implements ReplacementPolicy {
+
+    // Number of concurrent streams tracked
+    private static final int STREAM_TABLE_SIZE = 8;
+
+    // Consecutive stride matches before a stream is trusted
+    private static final int CONFIDENCE_THRESHOLD = 2;
+
+    private final ReplacementPolicy policy;
+    private final int readaheadPages;
+    private final int maxStride;
+
+    // Stream table: last page seen, stride, confidence, next page not yet prefetched, LRU stamp
+    private final int[] streamLast = new int[STREAM_TABLE_SIZE];
+    private final int[] streamStride = new int[STREAM_TABLE_SIZE];
+    private final int[] streamConfidence = new int[STREAM_TABLE_SIZE];
+    private final long[] streamNext = new long[STREAM_TABLE_SIZE];
+    private final long[] streamUsed = new long[STREAM_TABLE_SIZE];
+
+    // Prefetched pages not referenced yet (value unused), plus a FIFO ring bounding their number
+    private final PageTable outstanding;
+    private final int[] outstandingRing;
+    private int ringHead = 0;
+    private int ringSize = 0;
+
+    private long batches = 0;
+    private long prefetchedPages = 0;
+    private long prefetchHits = 0;
+    private long wastedPrefetches = 0;
+
+    /**
+     * Wraps a policy with readahead.
+     *
+     * @param policy         policy whose frame table receives the prefetched pages
+     * @param readaheadPages pages loaded per readahead batch
+     * @param maxStride      largest page delta still treated as the same region
+     */
+    public Readahead(ReplacementPolicy policy, int readaheadPages, int maxStride) {
+        if (readaheadPages <= 0 || maxStride <= 0) {
+            throw new IllegalArgumentException("readaheadPages and maxStride must be positive");
+        }
+        this.policy = policy;
+        this.readaheadPages = readaheadPages;
+        this.maxStride = maxStride;
+        this.outstanding = new PageTable(policy.getNumberOfFrames());
+        this.outstandingRing = new int[2 * policy.getNumberOfFrames()];
+        for (int i = 0; i < STREAM_TABLE_SIZE; i++) {
+            streamLast[i] = Integer.MIN_VALUE;
+        }
+    }
+
+    public static void main(String[] args) {
+        int numberOfFrames = 1024;
+        int length = 4_000_000;
+
+        // 60% Zipf hot set, 40% interleaved sequential and strided scans over a cold region
+        WorkloadGenerator hot = WorkloadGenerator.zipf(1, 1 << 14, 0.9);
+        WorkloadGenerator sequential = WorkloadGenerator.scan(2, 1 << 20, 1);
+        WorkloadGenerator strided = WorkloadGenerator.scan(3, 1 << 20, 4);
+        int[] referenceString = new int[length];
+        for (int i = 0; i < length; i++) {
+            int slot = i % 10;
+            if (slot < 6) {
+                referenceString[i] = hot.nextReference();
+            } else if (slot < 8) {
+                referenceString[i] = (1 << 14) + sequential.nextReference();
+            } else {
+                referenceString[i] = (1 << 14) + (1 << 20) + strided.nextReference();
+            }
+        }
+
+        SecondChance.Policy plain = new SecondChance.Policy(numberOfFrames);
+        Readahead readahead = new Readahead(new SecondChance.Policy(numberOfFrames), 32, 16);
+        for (int page : referenceString) {
+            plain.access(page);
+            readahead.access(page);
+        }
+
+        System.out.println("\n\n**** Readahead ***");
+        System.out.println("Number of references: " + length);
+        System.out.println("Number of frames: " + numberOfFrames + "\n");
+        System.out.printf("Without readahead | fault rate %6.3f%%%n",
+                100.0 * plain.getFaultCount() / plain.getReferenceCount());
+        System.out.printf("With readahead    | fault rate %6.3f%%%n",
+                100.0 * readahead.getFaultCount() / readahead.getReferenceCount());
+        System.out.printf("Prefetch batches: %d, pages: %d, hits: %d, wasted: %d%n",
+                readahead.getBatchCount(), readahead.getPrefetchedPageCount(),
+                readahead.getPrefetchHitCount(), readahead.getWastedPrefetchCount());
+    }
+
+    @Override
+    public boolean access(int pageNumber, boolean write) {
+        boolean fault = policy.access(pageNumber, write);
+
+        if (outstanding.get(pageNumber) != PageTable.NOT_PRESENT) {
+            // First use of a prefetched page
+            outstanding.remove(pageNumber);
+            if (fault) {
+                wastedPrefetches++;
+            } else {
+                prefetchHits++;
+            }
+        }
+
+        int stream = updateStreams(pageNumber, fault);
+        if (stream >= 0 && streamConfidence[stream] >= CONFIDENCE_THRESHOLD) {
+            readahead(stream, pageNumber);
+        }
+        return fault;
+    }
+
+    /**
+     * Matches the access against the stream table and returns the stream it belongs to, or -1.
+     */
+    private int updateStreams(int pageNumber, boolean fault) {
+        long now = policy.getReferenceCount();
+        int near = -1;
+
+        for (int i = 0; i < STREAM_TABLE_SIZE; i++) {
+            if (streamLast[i] == Integer.MIN_VALUE) {
+                continue;
+            }
+            long delta = (long) pageNumber - streamLast[i];
+            if (streamStride[i] != 0 && delta == streamStride[i]) {
+                // Continues the stream
+                streamLast[i] = pageNumber;
+                streamConfidence[i]++;
+                streamUsed[i] = now;
+                return i;
+            }
+            if (near < 0 && delta != 0 && Math.abs(delta) <= maxStride) {
+                near = i;
+            }
+        }
+
+        if (near >= 0) {
+            // Same region, different step: re-train the stride
+            streamStride[near] = pageNumber - streamLast[near];
+            streamLast[near] = pageNumber;
+            streamConfidence[near] = 1;
+            streamNext[near] = (long) pageNumber + streamStride[near];
+            streamUsed[near] = now;
+            return near;
+        }
+
+        if (fault) {
+            // Start a new stream in the least recently used slot
+            int victim = 0;
+            for (int i = 1; i < STREAM_TABLE_SIZE; i++) {
+                if (streamUsed[i] < streamUsed[victim]) {
+                    victim = i;
+                }
+            }
+            streamLast[victim] = pageNumber;
+            streamStride[victim] = 0;
+            streamConfidence[victim] = 0;
+            streamUsed[victim] = now;
+        }
+        return -1;
+    }
+
+    /**
+     * Tops up the stream's prefetch window to readaheadPages strides beyond pageNumber,
+     * once less than half the window remains.
+     */
+    private void readahead(int stream, int pageNumber) {
+        int stride = streamStride[stream];
+        long windowEnd = (long) pageNumber + (long) stride * readaheadPages;
+        long next = streamNext[stream];
+        // Ahead-of-access distance in strides; restart if the stream jumped past the window
+        long ahead = (next - pageNumber) / stride;
+        if (ahead <= 0 || ahead > readaheadPages) {
+            next = (long) pageNumber + stride;
+            ahead = 0;
+        }
+        if (ahead > readaheadPages / 2) {
+            return;
+        }
+
+        boolean loadedAny = false;
+        for (; (stride > 0) ? next <= windowEnd : next >= windowEnd; next += stride) {
+            if (next < 0 || next > Integer.MAX_VALUE) {
+                break;
+            }
+            int page = (int) next;
+            if (policy.prefetch(page)) {
+                loadedAny = true;
+                prefetchedPages++;
+                track(page);
+            }
+        }
+        streamNext[stream] = next;
+        if (loadedAny) {
+            batches++;
+        }
+    }
+
+    /**
+     * Records a prefetched page; if the ring is full, the oldest still-unused one counts as wasted.
+     */
+    private void track(int page) {
+        if (outstanding.get(page) != PageTable.NOT_PRESENT) {
+            // Loaded again before any use: the earlier prefetch was evicted unused. Its mark
+            // and ring entry now stand for this prefetch, so no duplicate entry is added
+            wastedPrefetches++;
+            return;
+        }
+        if (ringSize == outstandingRing.length) {
+            int oldest = outstandingRing[ringHead];
+            if (outstanding.get(oldest) != PageTable.NOT_PRESENT) {
+                outstanding.remove(oldest);
+                wastedPrefetches++;
+            }
+            outstandingRing[ringHead] = page;
+            ringHead = (ringHead + 1) % outstandingRing.length;
+        } else {
+            outstandingRing[(ringHead + ringSize++) % outstandingRing.length] = page;
+        }
+        outstanding.put(page, 0);
+    }
+
+    @Override
+    public boolean prefetch(int pageNumber) {
+        return policy.prefetch(pageNumber);
+    }
+
+    /**
+     * Returns the number of readahead batches issued (each one a single batched fault).
+     */
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Returns the number of pages loaded by readahead.
+     */
+    public long getPrefetchedPageCount() {
+        return prefetchedPages;
+    }
+
+    /**
+     * Returns the number of prefetched pages that were still resident at their first use.
+     */
+    public long getPrefetchHitCount() {
+        return prefetchHits;
+    }
+
+    /**
+     * Returns the number of prefetched pages evicted (or abandoned) before their first use.
+     */
+    public long getWastedPrefetchCount() {
+        return wastedPrefetches;
+    }
+
+    @Override
+    public long getReferenceCount() {
+        return policy.getReferenceCount();
+    }
+
+    @Override
+    public long getFaultCount() {
+        return policy.getFaultCount();
+    }
+
+    @Override
+    public int getNumberOfFrames() {
+        return policy.getNumberOfFrames();
+    }
+
+    @Override
+    public String getName() {
+        return policy.getName() + "+Readahead";
+    }
+}
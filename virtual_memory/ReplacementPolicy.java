@@ -0,0 +1,58 @@
+package virtual_memory;
+
+/**
+ * A page replacement policy driven one reference at a time.
+ * Unlike the table-printing run() methods, implementations keep only the
+ * frame table and counters, so they can process arbitrarily long traces.
+ */
+public interface ReplacementPolicy {
+
+    /**
+     * Processes a single page reference.
+     *
+     * @param pageNumber the page being accessed
+     * @param write      true if the access writes the page (sets M)
+     * @return true if the reference caused a page fault
+     */
+    boolean access(int pageNumber, boolean write);
+
+    /**
+     * Processes a single read reference.
+     *
+     * @param pageNumber the page being accessed
+     * @return true if the reference caused a page fault
+     */
+    default boolean access(int pageNumber) {
+        return access(pageNumber, false);
+    }
+
+    /**
+     * Loads a page ahead of use without counting a reference or a fault.
+     * Prefetched pages enter the frame table with R=0, so a prefetch that is
+     * never used is among the first pages evicted.
+     *
+     * @param pageNumber the page to load
+     * @return true if the page was loaded, false if it was already resident
+     */
+    boolean prefetch(int pageNumber);
+
+    /**
+     * Returns the number of references processed so far.
+     */
+    long getReferenceCount();
+
+    /**
+     * Returns the number of page faults so far.
+     */
+    long getFaultCount();
+
+    /**
+     * Returns the capacity of the frame table.
+     */
+    int getNumberOfFrames();
+
+    /**
+     * Returns a short human-readable name for reports.
+     */
+    String getName();
+}
@@ -0,0 +1,127 @@
+package virtual_memory;
+
+/**
+ * Histogram of clock scan lengths: how many frames the evicting hand inspected to
+ * find a victim, one sample per replacement. Lengths up to the tracked maximum are
+ * counted exactly, so percentiles are exact; longer scans share the last bucket.
+ *
+ * The main method compares the single-hand and two-handed clocks of
+ * {@link SecondChance.Policy} and {@link ThirdChance.Policy} on a large memory.
+ */
+public class ScanStatistics {
+
+    // histogram[k] = replacements that inspected k frames (last bucket: k or more)
+    private final long[] histogram;
+
+    private long count = 0;
+    private long total = 0;
+    private int max = 0;
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param maxTracked longest scan length counted exactly
+     */
+    public ScanStatistics(int maxTracked) {
+        if (maxTracked <= 0) {
+            throw new IllegalArgumentException("maxTracked must be positive: " + maxTracked);
+        }
+        this.histogram = new long[maxTracked + 1];
+    }
+
+    public static void main(String[] args) {
+        int numberOfFrames = 1 << 16;
+        int handSpread = numberOfFrames / 8;
+        int maxScan = 256;
+
+        // Zipf over twice the memory: most resident pages are hot, so most R bits are set
+        int length = 8_000_000;
+        WorkloadGenerator generator = WorkloadGenerator.zipf(5, 2 * numberOfFrames, 0.6);
+        int[] referenceString = generator.generate(length);
+        boolean[] writes = new boolean[length];
+        generator.fillWrites(writes, 0, length, 0.3);
+
+        SecondChance.Policy secondSingle = new SecondChance.Policy(numberOfFrames);
+        SecondChance.Policy secondTwoHanded = new SecondChance.Policy(numberOfFrames, handSpread, maxScan);
+        ThirdChance.Policy thirdSingle = new ThirdChance.Policy(numberOfFrames);
+        ThirdChance.Policy thirdTwoHanded = new ThirdChance.Policy(numberOfFrames, handSpread, maxScan);
+        ReplacementPolicy[] policies = {secondSingle, secondTwoHanded, thirdSingle, thirdTwoHanded};
+        ScanStatistics[] statistics = {
+            secondSingle.getScanStatistics(), secondTwoHanded.getScanStatistics(),
+            thirdSingle.getScanStatistics(), thirdTwoHanded.getScanStatistics()
+        };
+
+        System.out.println("\n\n**** Clock Scan Length ***");
+        System.out.println("Number of references: " + length);
+        System.out.println("Number of frames: " + numberOfFrames);
+        System.out.println("Hand spread: " + handSpread + ", max scan: " + maxScan + "\n");
+        for (int i = 0; i < policies.length; i++) {
+            ReplacementPolicy policy = policies[i];
+            long start = System.nanoTime();
+            for (int t = 0; t < length; t++) {
+                policy.access(referenceString[t], writes[t]);
+            }
+            long elapsed = System.nanoTime() - start;
+            ScanStatistics scans = statistics[i];
+            System.out.printf("%-22s | fault rate %6.3f%% | scan mean %6.1f p99 %6d max %6d | %5.1f M refs/s%n",
+                    policy.getName(), 100.0 * policy.getFaultCount() / policy.getReferenceCount(),
+                    scans.getMean(), scans.getPercentile(0.99), scans.getMax(), length * 1e3 / elapsed);
+        }
+        System.out.println("\nForced evictions: " + secondTwoHanded.getName() + " " + secondTwoHanded.getForcedEvictionCount()
+                + ", " + thirdTwoHanded.getName() + " " + thirdTwoHanded.getForcedEvictionCount());
+    }
+
+    /**
+     * Records one replacement.
+     *
+     * @param scanned number of frames inspected, including the victim
+     */
+    public void record(int scanned) {
+        histogram[Math.min(scanned, histogram.length - 1)]++;
+        count++;
+        total += scanned;
+        if (scanned > max) {
+            max = scanned;
+        }
+    }
+
+    /**
+     * Returns the number of replacements recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean scan length, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return (count == 0) ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns the longest scan recorded.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the smallest scan length that at least the given fraction of replacements
+     * did not exceed, e.g. 0.99 for the p99.
+     */
+    public int getPercentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            seen += histogram[length];
+            if (seen >= rank) {
+                return (length == histogram.length - 1) ? max : length;
+            }
+        }
+        return max;
+    }
+}
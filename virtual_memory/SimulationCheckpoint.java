@@ -0,0 +1,391 @@
+package virtual_memory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable snapshot of a clock-based simulator: frame table (page numbers, R/M bits),
+ * clock hand, trace offset and counters, plus the fingerprint of the trace it belongs to.
+ *
+ * File layout (big-endian):
+ *   magic, version, policy name (length-prefixed UTF-8), numberOfFrames, loadedFrames, hand,
+ *   traceFingerprint (long), traceOffset (long), references (long), faults (long),
+ *   pageNumbers[loadedFrames] (int), bits[loadedFrames] (byte: bit 0 = R, bit 1 = M),
+ *   CRC32 of everything before it (long)
+ *
+ * Files are written to a temporary sibling, forced to disk, then atomically renamed over
+ * the previous checkpoint, so a crash mid-write always leaves the last complete checkpoint.
+ */
+public class SimulationCheckpoint {
+
+    // "PGCK"
+    private static final int MAGIC = 0x5047434B;
+    private static final int VERSION = 2;
+
+    // Bit positions in the per-frame flag byte
+    public static final byte REFERENCE_BIT = 1;
+    public static final byte MODIFIED_BIT = 2;
+
+    private final String policyName;
+    private final int numberOfFrames;
+    private final int loadedFrames;
+    private final int hand;
+    private final long traceFingerprint;
+    private final long traceOffset;
+    private final long references;
+    private final long faults;
+    private final int[] pageNumbers;
+    private final byte[] bits;
+
+    /**
+     * Creates a checkpoint not yet bound to a trace (see {@link #forTrace(long)}).
+     * The arrays are taken over, not copied; callers pass fresh copies.
+     *
+     * @param policyName     name of the policy that produced the state
+     * @param numberOfFrames capacity of the frame table
+     * @param loadedFrames   number of frames holding a page
+     * @param hand           clock hand position
+     * @param traceOffset    number of trace references consumed
+     * @param references     references processed
+     * @param faults         page faults so far
+     * @param pageNumbers    page in each loaded frame
+     * @param bits           R/M flags of each loaded frame
+     */
+    public SimulationCheckpoint(String policyName, int numberOfFrames, int loadedFrames, int hand,
+                                long traceOffset, long references, long faults,
+                                int[] pageNumbers, byte[] bits) {
+        this(policyName, numberOfFrames, loadedFrames, hand, 0, traceOffset, references, faults, pageNumbers, bits);
+    }
+
+    private SimulationCheckpoint(String policyName, int numberOfFrames, int loadedFrames, int hand,
+                                 long traceFingerprint, long traceOffset, long references, long faults,
+                                 int[] pageNumbers, byte[] bits) {
+        this.policyName = policyName;
+        this.numberOfFrames = numberOfFrames;
+        this.loadedFrames = loadedFrames;
+        this.hand = hand;
+        this.traceFingerprint = traceFingerprint;
+        this.traceOffset = traceOffset;
+        this.references = references;
+        this.faults = faults;
+        this.pageNumbers = pageNumbers;
+        this.bits = bits;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int numberOfFrames = 1024;
+        Path traceFile = Files.createTempFile("trace", ".pgtr");
+        Path checkpointFile = Files.createTempFile("simulation", ".ckpt");
+        Files.delete(checkpointFile);
+
+        try {
+            try (CompressedTrace.Writer writer = new CompressedTrace.Writer(traceFile, CompressedTrace.DEFAULT_BLOCK_SIZE)) {
+                int[] chunk = WorkloadGenerator.phaseShift(5, 1 << 16, 2048, 250_000, 0.9).generate(5_000_000);
+                writer.write(chunk, 0, chunk.length);
+            }
+
+            System.out.println("\n\n**** Checkpoint / Resume ***");
+            try (CompressedTrace trace = new CompressedTrace(traceFile)) {
+                // Uninterrupted reference run
+                long expected = SecondChance.run(numberOfFrames, trace, null, 0);
+
+                // Simulate a crash halfway: run a partial simulation that leaves a checkpoint behind
+                SecondChance.Policy partial = new SecondChance.Policy(numberOfFrames);
+                PrimitiveIterator.OfInt references = trace.iterator();
+                for (long i = 0; i < trace.getReferenceCount() / 2; i++) {
+                    partial.access(references.nextInt());
+                }
+                write(partial.checkpoint(trace.getReferenceCount() / 2).forTrace(trace.getFingerprint()), checkpointFile);
+
+                long resumed = SecondChance.run(numberOfFrames, trace, checkpointFile, 1_000_000);
+                System.out.println("Faults without interruption: " + expected);
+                System.out.println("Faults after resume:         " + resumed);
+            }
+        } finally {
+            Files.deleteIfExists(traceFile);
+            Files.deleteIfExists(checkpointFile);
+        }
+    }
+
+    /**
+     * Replays a trace through a policy, resuming from checkpointFile if it exists, and
+     * writing a new checkpoint every checkpointInterval references. Checkpoints are captured
+     * in O(frames) on the simulation thread and written to disk in the background. A
+     * checkpoint of another policy, frame count or trace is rejected with an IOException
+     * rather than overwritten; the checkpoint file is deleted once the trace is done.
+     *
+     * @param policy             policy to drive
+     * @param trace              reference trace
+     * @param checkpointFile     checkpoint location, or null to disable checkpointing
+     * @param checkpointInterval references between checkpoints (ignored if checkpointFile is null)
+     * @return total page faults over the whole trace, including the part before the resume
+     */
+    public static long run(Checkpointable policy, CompressedTrace trace, Path checkpointFile,
+                           long checkpointInterval) throws IOException {
+        long offset = 0;
+        if (checkpointFile != null && Files.exists(checkpointFile)) {
+            SimulationCheckpoint checkpoint = read(checkpointFile);
+            // Never start over on top of someone else's progress: the file would be overwritten
+            if (!checkpoint.getPolicyName().equals(policy.getName())
+                    || checkpoint.getNumberOfFrames() != policy.getNumberOfFrames()) {
+                throw new IOException("Checkpoint " + checkpointFile + " belongs to " + checkpoint.getPolicyName()
+                        + " with " + checkpoint.getNumberOfFrames() + " frames, not " + policy.getName()
+                        + " with " + policy.getNumberOfFrames());
+            }
+            if (checkpoint.getTraceFingerprint() != trace.getFingerprint()
+                    || checkpoint.getTraceOffset() > trace.getReferenceCount()) {
+                throw new IOException("Checkpoint " + checkpointFile + " was taken over a different trace");
+            }
+            policy.restore(checkpoint);
+            offset = checkpoint.getTraceOffset();
+        }
+        if (checkpointFile == null) {
+            checkpointInterval = Long.MAX_VALUE;
+        } else if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive: " + checkpointInterval);
+        }
+
+        long fingerprint = trace.getFingerprint();
+        try (AsyncWriter writer = (checkpointFile != null) ? new AsyncWriter(checkpointFile) : null) {
+            PrimitiveIterator.OfInt references = trace.iterator(offset);
+            long position = offset;
+            while (references.hasNext()) {
+                policy.access(references.nextInt());
+                if (++position % checkpointInterval == 0) {
+                    writer.submit(policy.checkpoint(position).forTrace(fingerprint));
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // Trace read or decode failure inside the iterator
+            throw e.getCause();
+        }
+        if (checkpointFile != null) {
+            // Finished: a leftover checkpoint would only make the next run skip references
+            Files.deleteIfExists(checkpointFile);
+        }
+        return policy.getFaultCount();
+    }
+
+    /**
+     * Writes a checkpoint durably: temporary file, fsync, atomic rename.
+     *
+     * @param checkpoint state to write
+     * @param path       destination
+     */
+    public static void write(SimulationCheckpoint checkpoint, Path path) throws IOException {
+        byte[] name = checkpoint.policyName.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + 4 + 2 + name.length + 4 * 3 + 8 * 4 + checkpoint.loadedFrames * 5 + 8;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putShort((short) name.length).put(name);
+        buffer.putInt(checkpoint.numberOfFrames).putInt(checkpoint.loadedFrames).putInt(checkpoint.hand);
+        buffer.putLong(checkpoint.traceFingerprint).putLong(checkpoint.traceOffset).putLong(checkpoint.references).putLong(checkpoint.faults);
+        buffer.asIntBuffer().put(checkpoint.pageNumbers, 0, checkpoint.loadedFrames);
+        buffer.position(buffer.position() + checkpoint.loadedFrames * 4);
+        buffer.put(checkpoint.bits, 0, checkpoint.loadedFrames);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads and verifies a checkpoint file.
+     *
+     * @param path checkpoint written by write()
+     */
+    public static SimulationCheckpoint read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoint too large: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Checkpoint truncated: " + path);
+                }
+            }
+            buffer.flip();
+        }
+
+        if (buffer.remaining() < 8) {
+            throw new IOException("Checkpoint truncated: " + path);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 8);
+        if (crc.getValue() != buffer.getLong(buffer.limit() - 8)) {
+            throw new IOException("Checkpoint checksum mismatch: " + path);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a simulation checkpoint: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+        }
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        int numberOfFrames = buffer.getInt();
+        int loadedFrames = buffer.getInt();
+        int hand = buffer.getInt();
+        long traceFingerprint = buffer.getLong();
+        long traceOffset = buffer.getLong();
+        long references = buffer.getLong();
+        long faults = buffer.getLong();
+        int[] pageNumbers = new int[loadedFrames];
+        buffer.asIntBuffer().get(pageNumbers);
+        buffer.position(buffer.position() + loadedFrames * 4);
+        byte[] bits = new byte[loadedFrames];
+        buffer.get(bits);
+
+        return new SimulationCheckpoint(new String(name, StandardCharsets.UTF_8), numberOfFrames,
+                loadedFrames, hand, traceFingerprint, traceOffset, references, faults, pageNumbers, bits);
+    }
+
+    /**
+     * Returns this checkpoint bound to a trace, so it is only resumed over that trace.
+     *
+     * @param traceFingerprint {@link CompressedTrace#getFingerprint()} of the trace
+     */
+    public SimulationCheckpoint forTrace(long traceFingerprint) {
+        return new SimulationCheckpoint(policyName, numberOfFrames, loadedFrames, hand,
+                traceFingerprint, traceOffset, references, faults, pageNumbers, bits);
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getNumberOfFrames() {
+        return numberOfFrames;
+    }
+
+    public int getLoadedFrames() {
+        return loadedFrames;
+    }
+
+    public int getHand() {
+        return hand;
+    }
+
+    public long getTraceFingerprint() {
+        return traceFingerprint;
+    }
+
+    public long getTraceOffset() {
+        return traceOffset;
+    }
+
+    public long getReferences() {
+        return references;
+    }
+
+    public long getFaults() {
+        return faults;
+    }
+
+    /**
+     * Returns the page number held by a loaded frame.
+     */
+    public int getPageNumber(int frameNumber) {
+        return pageNumbers[frameNumber];
+    }
+
+    /**
+     * Returns the R/M flags of a loaded frame (see REFERENCE_BIT, MODIFIED_BIT).
+     */
+    public byte getBits(int frameNumber) {
+        return bits[frameNumber];
+    }
+
+    /**
+     * Writes checkpoints on a background thread so the simulation never waits for disk.
+     * If a new checkpoint arrives while one is being written, only the newest pending
+     * one is kept: intermediate checkpoints are pointless once a later one exists.
+     */
+    public static class AsyncWriter implements Closeable {
+
+        private final Path path;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Latest checkpoint not yet picked up by the writer thread
+        private final AtomicReference<SimulationCheckpoint> pending = new AtomicReference<>();
+
+        // First write failure, reported on close()
+        private volatile IOException failure;
+
+        public AsyncWriter(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Queues a checkpoint for writing, replacing any checkpoint still waiting.
+         */
+        public void submit(SimulationCheckpoint checkpoint) {
+            if (pending.getAndSet(checkpoint) == null) {
+                executor.execute(() -> {
+                    SimulationCheckpoint latest = pending.getAndSet(null);
+                    if (latest == null) {
+                        return;
+                    }
+                    try {
+                        write(latest, path);
+                    } catch (IOException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * Waits for queued checkpoints to reach disk.
+         */
+        @Override
+        public void close() throws IOException {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing checkpoint", e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package virtual_memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a parameter sweep (policy x frame count x trace segment) into work units and
+ * distributes them over several local {@link SweepWorker} JVMs, each with its own small
+ * heap, over loopback TCP or a Unix domain socket.
+ *
+ * Each worker slot is served by one coordinator thread with its own listening socket, so
+ * a connection always belongs to the worker JVM that thread started. The thread hands out
+ * one unit at a time from a shared queue. If a worker dies (connection error or EOF) or
+ * does not answer within the unit timeout (e.g. GC-thrashing in its small heap), its
+ * connection is closed, its in-flight unit goes back to the queue and a replacement worker
+ * is started; a unit that fails on maxAttempts workers aborts the sweep.
+ *
+ * Segments are simulated independently, each starting with empty frames, and their
+ * reference and fault counts are summed per (policy, frame count). With segments much
+ * longer than the frame count, the extra cold-start faults are negligible.
+ *
+ * Traces hold no write flags, so every reference is a read: THIRD_CHANCE then makes the
+ * same decisions as SECOND_CHANCE and only doubles the work.
+ */
+public class SweepCoordinator {
+
+    private final Path tracePath;
+    private final byte[] policies;
+    private final int[] frameCounts;
+    private final int blocksPerSegment;
+    private final int numberOfWorkers;
+    private final String workerHeap;
+    private final boolean unixSockets;
+    private final long unitTimeoutMillis;
+    private final int maxAttempts;
+
+    // Closes connections whose worker misses the unit timeout
+    private ScheduledExecutorService watchdog;
+
+    // Pending units: {unitId, policyIndex, frameIndex, firstBlock, blockCount}
+    private final LinkedBlockingDeque<int[]> queue = new LinkedBlockingDeque<>();
+    private int[] attempts;
+
+    // Merged results: [policyIndex][frameIndex] -> references, faults, worker nanos
+    private long[][] references;
+    private long[][] faults;
+    private long[][] nanos;
+
+    private final AtomicInteger remainingUnits = new AtomicInteger();
+    private final AtomicInteger workersStarted = new AtomicInteger();
+    private volatile IOException failure;
+
+    // Used by main() to make the first worker crash, demonstrating retries
+    private int crashFirstWorkerAfter = -1;
+
+    /**
+     * Creates a coordinator.
+     *
+     * @param tracePath        compressed trace to sweep over (read by the workers directly)
+     * @param policies         policy codes (see SweepWorker) to evaluate
+     * @param frameCounts      frame counts to evaluate
+     * @param blocksPerSegment trace blocks per work unit
+     * @param numberOfWorkers  worker JVMs to run concurrently
+     * @param workerHeap       -Xmx value for each worker, e.g. "256m"
+     * @param unixSockets      true for a Unix domain socket, false for loopback TCP
+     * @param unitTimeoutMillis longest a worker may take to answer one unit before it is
+     *                         treated as crashed
+     */
+    public SweepCoordinator(Path tracePath, byte[] policies, int[] frameCounts, int blocksPerSegment,
+                            int numberOfWorkers, String workerHeap, boolean unixSockets,
+                            long unitTimeoutMillis) {
+        if (blocksPerSegment <= 0 || numberOfWorkers <= 0 || unitTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("blocksPerSegment, numberOfWorkers and unitTimeoutMillis must be positive");
+        }
+        this.tracePath = tracePath.toAbsolutePath();
+        this.policies = policies.clone();
+        this.frameCounts = frameCounts.clone();
+        this.blocksPerSegment = blocksPerSegment;
+        this.numberOfWorkers = numberOfWorkers;
+        this.workerHeap = workerHeap;
+        this.unixSockets = unixSockets;
+        this.unitTimeoutMillis = unitTimeoutMillis;
+        this.maxAttempts = 3;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path traceFile = Files.createTempFile("sweep", ".pgtr");
+        try {
+            try (CompressedTrace.Writer writer = new CompressedTrace.Writer(traceFile, CompressedTrace.DEFAULT_BLOCK_SIZE)) {
+                int[] chunk = WorkloadGenerator.phaseShift(9, 1 << 18, 3072, 1_000_000, 0.9).generate(8_000_000);
+                writer.write(chunk, 0, chunk.length);
+            }
+
+            // No THIRD_CHANCE: the trace has no writes, so it would repeat SECOND_CHANCE (see class comment)
+            SweepCoordinator coordinator = new SweepCoordinator(traceFile,
+                    new byte[] {SweepWorker.SECOND_CHANCE, SweepWorker.WS_CLOCK, SweepWorker.AGING},
+                    new int[] {512, 1024, 2048, 4096}, 32,
+                    Math.max(2, Runtime.getRuntime().availableProcessors()), "256m", false, 60_000);
+            coordinator.crashFirstWorkerAfter = 2;
+
+            System.out.println("\n\n**** Distributed Sweep ***");
+            long start = System.nanoTime();
+            coordinator.run();
+            System.out.printf("Elapsed: %.2f s, worker JVMs started: %d%n%n",
+                    (System.nanoTime() - start) / 1e9, coordinator.workersStarted.get());
+            coordinator.printReport();
+        } finally {
+            Files.deleteIfExists(traceFile);
+        }
+    }
+
+    /**
+     * Runs the sweep to completion.
+     */
+    public void run() throws IOException, InterruptedException {
+        int blockCount;
+        try (CompressedTrace trace = new CompressedTrace(tracePath)) {
+            blockCount = trace.getBlockCount();
+        }
+
+        references = new long[policies.length][frameCounts.length];
+        faults = new long[policies.length][frameCounts.length];
+        nanos = new long[policies.length][frameCounts.length];
+
+        int unitId = 0;
+        for (int p = 0; p < policies.length; p++) {
+            for (int f = 0; f < frameCounts.length; f++) {
+                for (int first = 0; first < blockCount; first += blocksPerSegment) {
+                    queue.add(new int[] {unitId++, p, f, first, Math.min(blocksPerSegment, blockCount - first)});
+                }
+            }
+        }
+        attempts = new int[unitId];
+        remainingUnits.set(unitId);
+
+        Path socketDirectory = unixSockets ? Files.createTempDirectory("sweep") : null;
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sweep-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Thread> connections = new ArrayList<>();
+            for (int w = 0; w < numberOfWorkers; w++) {
+                int slot = w;
+                int crashAfter = (w == 0) ? crashFirstWorkerAfter : -1;
+                Thread connection = new Thread(() -> serveSlot(slot, socketDirectory, crashAfter), "sweep-worker-" + w);
+                connections.add(connection);
+                connection.start();
+            }
+            for (Thread connection : connections) {
+                connection.join();
+            }
+        } finally {
+            watchdog.shutdownNow();
+            if (socketDirectory != null) {
+                Files.deleteIfExists(socketDirectory);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Opens the slot's listening socket and serves workers on it.
+     */
+    private void serveSlot(int slot, Path socketDirectory, int crashAfter) {
+        Path socketPath = (socketDirectory != null) ? socketDirectory.resolve("worker-" + slot + ".sock") : null;
+        try (ServerSocketChannel server = (socketPath != null)
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open()) {
+            String address;
+            if (socketPath != null) {
+                server.bind(UnixDomainSocketAddress.of(socketPath));
+                address = "unix:" + socketPath;
+            } else {
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                address = "tcp:" + ((InetSocketAddress) server.getLocalAddress()).getPort();
+            }
+            // Non-blocking accept, so a worker that dies before connecting cannot hang the thread
+            server.configureBlocking(false);
+            serveWorkers(server, address, crashAfter);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            if (socketPath != null) {
+                try {
+                    Files.deleteIfExists(socketPath);
+                } catch (IOException e) {
+                    // Best effort: a leftover socket file does not affect the sweep
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps one worker slot busy until the queue is drained, replacing the worker if it dies.
+     * Only one worker of the slot is alive at a time, so the connection accepted on the
+     * slot's socket always belongs to the process started here.
+     */
+    private void serveWorkers(ServerSocketChannel server, String address, int crashAfter) {
+        int startFailures = 0;
+        while (remainingUnits.get() > 0 && failure == null) {
+            Process process = null;
+            int[] unit = null;
+            try {
+                process = startWorker(address, crashAfter);
+                crashAfter = -1; // only the first incarnation crashes
+                SocketChannel channel;
+                try {
+                    channel = acceptWorker(server, process);
+                } catch (IOException e) {
+                    if (++startFailures >= maxAttempts) {
+                        failure = new IOException("Could not start a sweep worker", e);
+                    }
+                    continue;
+                }
+                startFailures = 0;
+                try (channel) {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                    while (true) {
+                        unit = queue.poll(100, TimeUnit.MILLISECONDS);
+                        if (unit == null) {
+                            if (remainingUnits.get() == 0 || failure != null) {
+                                break;
+                            }
+                            continue;
+                        }
+                        sendUnit(out, unit);
+                        // A hung worker gets its connection closed, which fails the read below
+                        ScheduledFuture<?> timeout = watchdog.schedule(() -> closeQuietly(channel),
+                                unitTimeoutMillis, TimeUnit.MILLISECONDS);
+                        try {
+                            receiveResult(in, unit);
+                        } finally {
+                            timeout.cancel(false);
+                        }
+                        unit = null;
+                        if (remainingUnits.decrementAndGet() == 0) {
+                            break;
+                        }
+                    }
+                    out.writeByte(SweepWorker.SHUTDOWN);
+                    out.flush();
+                }
+                process.waitFor(10, TimeUnit.SECONDS);
+            } catch (IOException e) {
+                // Worker died or the connection broke: retry its unit elsewhere
+                if (unit != null) {
+                    if (++attempts[unit[0]] >= maxAttempts) {
+                        failure = new IOException("Work unit " + unit[0] + " failed on " + maxAttempts + " workers", e);
+                    } else {
+                        queue.addFirst(unit);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (process != null && process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the slot's worker to connect, failing if it exits first.
+     */
+    private SocketChannel acceptWorker(ServerSocketChannel server, Process process)
+            throws IOException, InterruptedException {
+        while (true) {
+            SocketChannel channel = server.accept();
+            if (channel != null) {
+                channel.configureBlocking(true);
+                return channel;
+            }
+            if (!process.isAlive()) {
+                throw new IOException("Worker exited with status " + process.exitValue() + " before connecting");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The connection is being abandoned either way
+        }
+    }
+
+    private Process startWorker(String address, int crashAfter) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx" + workerHeap,
+                "-cp", System.getProperty("java.class.path"), SweepWorker.class.getName(), address));
+        if (crashAfter >= 0) {
+            command.add(Integer.toString(crashAfter));
+        }
+        workersStarted.incrementAndGet();
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private void sendUnit(DataOutputStream out, int[] unit) throws IOException {
+        out.writeByte(SweepWorker.UNIT);
+        out.writeInt(unit[0]);
+        out.writeByte(policies[unit[1]]);
+        out.writeInt(frameCounts[unit[2]]);
+        out.writeUTF(tracePath.toString());
+        out.writeInt(unit[3]);
+        out.writeInt(unit[4]);
+        out.flush();
+    }
+
+    private void receiveResult(DataInputStream in, int[] unit) throws IOException {
+        int unitId = in.readInt();
+        if (unitId != unit[0]) {
+            throw new IOException("Worker answered unit " + unitId + ", expected " + unit[0]);
+        }
+        long unitReferences = in.readLong();
+        long unitFaults = in.readLong();
+        long unitNanos = in.readLong();
+        synchronized (this) {
+            references[unit[1]][unit[2]] += unitReferences;
+            faults[unit[1]][unit[2]] += unitFaults;
+            nanos[unit[1]][unit[2]] += unitNanos;
+        }
+    }
+
+    /**
+     * Prints the merged fault rate table: one row per policy, one column per frame count.
+     */
+    public synchronized void printReport() {
+        System.out.printf("%-14s |", "Policy");
+        for (int frameCount : frameCounts) {
+            System.out.printf(" %8d fr |", frameCount);
+        }
+        System.out.println();
+        for (int p = 0; p < policies.length; p++) {
+            System.out.printf("%-14s |", SweepWorker.POLICY_NAMES[policies[p]]);
+            for (int f = 0; f < frameCounts.length; f++) {
+                System.out.printf(" %9.3f%% |", 100.0 * faults[p][f] / Math.max(1, references[p][f]));
+            }
+            System.out.println();
+        }
+        System.out.println();
+    }
+}
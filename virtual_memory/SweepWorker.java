@@ -0,0 +1,163 @@
+package virtual_memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Worker JVM for parameter sweeps distributed by {@link SweepCoordinator}.
+ *
+ * The worker connects back to the coordinator, then repeatedly receives a work unit
+ * (policy, frame count, trace file and block range), replays that trace segment through
+ * a fresh policy, and sends back the counters. It exits on a SHUTDOWN message or when
+ * the connection closes.
+ *
+ * Wire protocol (big-endian, DataInput/DataOutput encoding):
+ *   coordinator -> worker: byte UNIT, int unitId, byte policy, int numberOfFrames,
+ *                          UTF tracePath, int firstBlock, int blockCount
+ *                        | byte SHUTDOWN
+ *   worker -> coordinator: int unitId, long references, long faults, long elapsedNanos
+ */
+public class SweepWorker {
+
+    // Message types sent by the coordinator
+    static final byte UNIT = 1;
+    static final byte SHUTDOWN = 2;
+
+    // Policies a work unit can ask for
+    static final byte SECOND_CHANCE = 0;
+    static final byte THIRD_CHANCE = 1;
+    static final byte WS_CLOCK = 2;
+    static final byte AGING = 3;
+    static final String[] POLICY_NAMES = {"SecondChance", "ThirdChance", "WSClock", "Aging(4)"};
+
+    /**
+     * Usage: SweepWorker tcp:PORT | unix:SOCKET_PATH [crashAfterUnits]
+     * The optional crashAfterUnits makes the worker die abruptly, to exercise retries.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SweepWorker tcp:PORT | unix:SOCKET_PATH [crashAfterUnits]");
+            System.exit(2);
+        }
+        int crashAfter = (args.length > 1) ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+
+        try (SocketChannel channel = SocketChannel.open(parseAddress(args[0]))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            // Keep the last opened trace: consecutive units usually share it
+            Path openPath = null;
+            CompressedTrace trace = null;
+            int completed = 0;
+
+            try {
+                while (true) {
+                    byte type;
+                    try {
+                        type = in.readByte();
+                    } catch (EOFException e) {
+                        return;
+                    }
+                    if (type == SHUTDOWN) {
+                        return;
+                    }
+                    if (type != UNIT) {
+                        throw new IOException("Unknown message type " + type);
+                    }
+
+                    int unitId = in.readInt();
+                    byte policy = in.readByte();
+                    int numberOfFrames = in.readInt();
+                    Path tracePath = Paths.get(in.readUTF());
+                    int firstBlock = in.readInt();
+                    int blockCount = in.readInt();
+
+                    if (!tracePath.equals(openPath)) {
+                        if (trace != null) {
+                            trace.close();
+                        }
+                        trace = new CompressedTrace(tracePath);
+                        openPath = tracePath;
+                    }
+
+                    long start = System.nanoTime();
+                    ReplacementPolicy replacementPolicy = newPolicy(policy, numberOfFrames);
+                    replaySegment(trace, replacementPolicy, firstBlock, blockCount);
+                    long elapsed = System.nanoTime() - start;
+
+                    if (++completed > crashAfter) {
+                        // Simulated crash: no reply, no cleanup
+                        Runtime.getRuntime().halt(1);
+                    }
+
+                    out.writeInt(unitId);
+                    out.writeLong(replacementPolicy.getReferenceCount());
+                    out.writeLong(replacementPolicy.getFaultCount());
+                    out.writeLong(elapsed);
+                    out.flush();
+                }
+            } finally {
+                if (trace != null) {
+                    trace.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the policy identified by a policy code.
+     *
+     * @param policy         one of SECOND_CHANCE, THIRD_CHANCE, WS_CLOCK, AGING
+     * @param numberOfFrames capacity of the frame buffer
+     */
+    static ReplacementPolicy newPolicy(byte policy, int numberOfFrames) {
+        switch (policy) {
+            case SECOND_CHANCE:
+                return new SecondChance.Policy(numberOfFrames);
+            case THIRD_CHANCE:
+                return new ThirdChance.Policy(numberOfFrames);
+            case WS_CLOCK:
+                return new WSClock(numberOfFrames, 2L * numberOfFrames);
+            case AGING:
+                return new Aging(numberOfFrames, 4);
+            default:
+                throw new IllegalArgumentException("Unknown policy code " + policy);
+        }
+    }
+
+    /**
+     * Parses "tcp:PORT" (loopback) or "unix:PATH" into a socket address.
+     */
+    static SocketAddress parseAddress(String address) {
+        if (address.startsWith("tcp:")) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address.substring(4)));
+        }
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring(5));
+        }
+        throw new IllegalArgumentException("Address must be tcp:PORT or unix:PATH: " + address);
+    }
+
+    private static void replaySegment(CompressedTrace trace, ReplacementPolicy policy,
+                                      int firstBlock, int blockCount) throws IOException {
+        int[] block = new int[trace.getBlockSize()];
+        for (int b = firstBlock; b < firstBlock + blockCount; b++) {
+            int count = trace.decodeBlock(b, block, 0);
+            for (int i = 0; i < count; i++) {
+                policy.access(block[i]);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package virtual_memory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 /**
@@ -91,6 +93,24 @@ public class ThirdChance {
         printTable(pageStates, numberOfFrames, referenceString, pageFaults);
     }
 
+    /**
+     * Runs the Third Chance policy over a (possibly very long) trace without printing the
+     * per-step table. If checkpointFile holds a checkpoint from an interrupted run with the
+     * same frame count over the same trace, the simulation resumes from it (any other
+     * checkpoint there is an error); a new checkpoint is written every checkpointInterval
+     * references and deleted once the trace is done.
+     *
+     * @param numberOfFrames     capacity of the frame buffer
+     * @param trace              reference trace
+     * @param checkpointFile     checkpoint location, or null to disable checkpointing
+     * @param checkpointInterval references between checkpoints
+     * @return total page faults over the whole trace
+     */
+    public static long run(int numberOfFrames, CompressedTrace trace, Path checkpointFile,
+                           long checkpointInterval) throws IOException {
+        return SimulationCheckpoint.run(new Policy(numberOfFrames), trace, checkpointFile, checkpointInterval);
+    }
+
     /**
      * Handles a page fault using the Third Chance replacement policy.
      *
@@ -214,4 +234,135 @@ public class ThirdChance {
     private static void printSeparator(int numberOfFrames, int referenceStringLength) {
         System.out.println("-".repeat(7 + 6 * referenceStringLength + 10 + 3 * (referenceStringLength + 1)));
     }
+
+    /**
+     * Third Chance as a {@link ReplacementPolicy}: same R/M rule as run(), but with its
+     * own clock hand, frames that start out empty, and an O(1) page table for hits.
+     * Keeps no per-step history, so it can process arbitrarily long reference strings.
+     *
+     * In two-handed mode a leading hand, handSpread frames ahead, clears R bits while the
+     * trailing hand evicts, so a page survives only if it is referenced between the two
+     * hands passing it. One fault then inspects at most about handSpread frames instead of
+     * up to the whole table, and never more than maxScan: at that point the frame under the
+     * trailing hand is evicted regardless of its bits (a forced eviction).
+     */
+    public static class Policy extends ClockPolicy implements Checkpointable {
+
+        // Two-handed mode: distance between the hands and per-fault scan cap (0 = single hand);
+        // 'hand' is then the trailing hand and the leading hand is handSpread frames ahead
+        private final int handSpread;
+        private final int maxScan;
+        private long forcedEvictions = 0;
+
+        // Frames inspected per replacement
+        private final ScanStatistics scanStatistics;
+
+        /**
+         * Creates an empty Third Chance frame table with a single clock hand.
+         *
+         * @param numberOfFrames capacity of the frame buffer
+         */
+        public Policy(int numberOfFrames) {
+            this(numberOfFrames, 0, 0);
+        }
+
+        /**
+         * Creates an empty Third Chance frame table with a two-handed clock.
+         *
+         * @param numberOfFrames capacity of the frame buffer
+         * @param handSpread     frames between the leading and trailing hand, 1..numberOfFrames-1,
+         *                       or 0 for a single hand
+         * @param maxScan        most frames inspected per fault in two-handed mode
+         */
+        public Policy(int numberOfFrames, int handSpread, int maxScan) {
+            super(numberOfFrames);
+            if (handSpread < 0 || handSpread >= numberOfFrames) {
+                throw new IllegalArgumentException("handSpread must be in 0.." + (numberOfFrames - 1) + ": " + handSpread);
+            }
+            if (handSpread > 0 && maxScan <= 0) {
+                throw new IllegalArgumentException("maxScan must be positive: " + maxScan);
+            }
+            this.handSpread = handSpread;
+            this.maxScan = maxScan;
+            // A single hand finds a victim within two full revolutions
+            this.scanStatistics = new ScanStatistics(2 * numberOfFrames + 1);
+        }
+
+        @Override
+        protected int selectVictim() {
+            if (handSpread > 0) {
+                return selectVictimTwoHanded();
+            }
+            for (int scanned = 1; ; scanned++) {
+                int frameNumber = hand;
+                Page candidate = frames.get(frameNumber).getPage();
+                hand = (hand + 1) % frames.size();
+                if (candidate.isReferenceBit()) {
+                    // 1st chance: if R=1, clear R and skip
+                    candidate.setReferenceBit(false);
+                } else if (candidate.isModifiedBit()) {
+                    // 2nd chance: if M=1, clear M and skip
+                    candidate.resetModifiedBit();
+                } else {
+                    // 3rd chance: R=0 and M=0, evict this page
+                    scanStatistics.record(scanned);
+                    return frameNumber;
+                }
+            }
+        }
+
+        private int selectVictimTwoHanded() {
+            int front = (hand + handSpread) % frames.size();
+            for (int scanned = 1; ; scanned++) {
+                // Leading hand clears R: only pages used before the trailing hand arrives survive
+                frames.get(front).getPage().setReferenceBit(false);
+                int frameNumber = hand;
+                Page candidate = frames.get(frameNumber).getPage();
+                hand = (hand + 1) % frames.size();
+                boolean evictable = !candidate.isReferenceBit() && !candidate.isModifiedBit();
+                if (evictable || scanned == maxScan) {
+                    if (!evictable) {
+                        forcedEvictions++;
+                    }
+                    scanStatistics.record(scanned);
+                    return frameNumber;
+                }
+                if (!candidate.isReferenceBit()) {
+                    // 2nd chance: R=0 but M=1, clear M (write back) and skip
+                    candidate.resetModifiedBit();
+                }
+                // Advance the leading hand with the trailing one
+                front = (front + 1) % frames.size();
+            }
+        }
+
+        @Override
+        public SimulationCheckpoint checkpoint(long traceOffset) {
+            return checkpointClock(traceOffset);
+        }
+
+        @Override
+        public void restore(SimulationCheckpoint checkpoint) {
+            restoreClock(checkpoint);
+        }
+
+        /**
+         * Returns the scan length histogram of this policy's replacements.
+         */
+        public ScanStatistics getScanStatistics() {
+            return scanStatistics;
+        }
+
+        /**
+         * Returns the number of evictions forced by the maxScan cap.
+         */
+        public long getForcedEvictionCount() {
+            return forcedEvictions;
+        }
+
+        @Override
+        public String getName() {
+            return (handSpread > 0) ? "ThirdChance(2-hand)" : "ThirdChance";
+        }
+    }
 }
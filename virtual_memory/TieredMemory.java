@@ -0,0 +1,266 @@
+package virtual_memory;
+
+/**
+ * Two-tier frame table: a small fast pool and a larger slow pool, each run by its own
+ * Second Chance clock, with a per-tier access latency.
+ *
+ * Once the fast tier is full, faulting pages are loaded into the slow tier. A slow-tier
+ * page that is hit promotionThreshold times before the slow clock clears its R bit is
+ * promoted, swapping frames with the fast clock's victim, which is demoted instead of
+ * dropped; only the slow clock's victim leaves memory. Pages touched once therefore never
+ * displace the fast tier's working set.
+ *
+ * Every reference is charged the latency of the tier it hits; a fault is charged the
+ * fault latency plus an access to the tier it loads into, and each page moved between
+ * tiers the migration latency. The total divided by the reference count is the effective
+ * access latency.
+ */
+public class TieredMemory extends ClockPolicy {
+
+    /**
+     * One frame pool with its own clock hand: a contiguous range of the frame table.
+     */
+    private class Tier {
+
+        // First frame of this tier and number of frames in it
+        private final int first;
+        private final int size;
+
+        // Clock hand within the tier, pointing to the next frame to inspect
+        private int hand = 0;
+
+        private Tier(int first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        private boolean contains(int frameNumber) {
+            return frameNumber >= first && frameNumber < first + size;
+        }
+
+        /**
+         * Advances the clock to the first frame with R=0, clearing R bits on the way,
+         * and returns that frame. The caller replaces its page.
+         */
+        private int nextVictim() {
+            while (true) {
+                int frameNumber = first + hand;
+                Page candidate = frames.get(frameNumber).getPage();
+                hand = (hand + 1) % size;
+                if (!candidate.isReferenceBit()) {
+                    return frameNumber;
+                }
+                // Second chance: clear R and forget the hits that set it
+                candidate.setReferenceBit(false);
+                hitCounts[frameNumber] = 0;
+            }
+        }
+    }
+
+    // The fast tier holds the first frames of the table, the slow tier the rest, so frames
+    // fill fast first; once full, new pages replace the slow clock's victim
+    private final Tier fast;
+    private final Tier slow;
+
+    // Hits per frame since its tier's clock last cleared its R bit
+    private final int[] hitCounts;
+
+    private final int promotionThreshold;
+
+    // Cost model, in nanoseconds
+    private final double fastLatency;
+    private final double slowLatency;
+    private final double migrationLatency;
+    private final double faultLatency;
+
+    private long fastHits = 0;
+    private long slowHits = 0;
+    private long promotions = 0;
+    private long demotions = 0;
+    private double totalLatency = 0;
+
+    /**
+     * Creates an empty tiered frame table.
+     *
+     * @param fastFrames         capacity of the fast tier
+     * @param slowFrames         capacity of the slow tier
+     * @param promotionThreshold slow-tier hits within one clock revolution that promote a page
+     * @param fastLatency        cost of an access served by the fast tier (ns)
+     * @param slowLatency        cost of an access served by the slow tier (ns)
+     * @param migrationLatency   cost of moving one page between tiers (ns)
+     * @param faultLatency       cost of loading a page from backing store (ns)
+     */
+    public TieredMemory(int fastFrames, int slowFrames, int promotionThreshold, double fastLatency,
+                        double slowLatency, double migrationLatency, double faultLatency) {
+        super(fastFrames + slowFrames);
+        if (fastFrames <= 0 || slowFrames <= 0) {
+            throw new IllegalArgumentException("fastFrames and slowFrames must be positive");
+        }
+        if (promotionThreshold <= 0) {
+            throw new IllegalArgumentException("promotionThreshold must be positive: " + promotionThreshold);
+        }
+        this.fast = new Tier(0, fastFrames);
+        this.slow = new Tier(fastFrames, slowFrames);
+        this.hitCounts = new int[fastFrames + slowFrames];
+        this.promotionThreshold = promotionThreshold;
+        this.fastLatency = fastLatency;
+        this.slowLatency = slowLatency;
+        this.migrationLatency = migrationLatency;
+        this.faultLatency = faultLatency;
+    }
+
+    public static void main(String[] args) {
+        int totalFrames = 24576;
+        int length = 8_000_000;
+        int promotionThreshold = 4;
+        double fastLatency = 80;
+        double slowLatency = 250;
+        double migrationLatency = 500;
+        double faultLatency = 50_000;
+
+        int[] referenceString = WorkloadGenerator.zipf(11, 1 << 15, 1.0).generate(length);
+
+        System.out.println("\n\n**** Tiered Memory ***");
+        System.out.println("Number of references: " + length);
+        System.out.println("Total frames: " + totalFrames + ", promotion threshold: " + promotionThreshold);
+        System.out.printf("Latency (ns): fast %.0f, slow %.0f, migration %.0f, fault %.0f%n%n",
+                fastLatency, slowLatency, migrationLatency, faultLatency);
+        System.out.printf("%-17s | %-8s | %-8s | %-8s | %-11s | %-11s | %s%n",
+                "Fast", "Faults", "Fast hit", "Slow hit", "Promotions", "Demotions", "Avg latency");
+
+        // Single-clock baselines: one Second Chance clock over all frames, priced at the slow
+        // and at the fast latency. Not bounds: new pages enter that clock directly, while the
+        // tiered table keeps pages touched once out of the fast tier, which changes the faults
+        SecondChance.Policy uniform = new SecondChance.Policy(totalFrames);
+        for (int page : referenceString) {
+            uniform.access(page);
+        }
+        long uniformHits = uniform.getReferenceCount() - uniform.getFaultCount();
+        double uniformFaultCost = uniform.getFaultCount() * faultLatency;
+        System.out.printf("%-17s | %7.3f%% | %-8s | %-8s | %-11s | %-11s | %8.1f ns%n", "single-clock slow",
+                100.0 * uniform.getFaultCount() / length, "-", "-", "-", "-",
+                (uniformHits * slowLatency + uniformFaultCost + uniform.getFaultCount() * slowLatency) / length);
+
+        for (int fastFrames = totalFrames / 32; fastFrames < totalFrames; fastFrames *= 2) {
+            TieredMemory tiered = new TieredMemory(fastFrames, totalFrames - fastFrames, promotionThreshold,
+                    fastLatency, slowLatency, migrationLatency, faultLatency);
+            for (int page : referenceString) {
+                tiered.access(page);
+            }
+            System.out.printf("%-17d | %7.3f%% | %7.2f%% | %7.2f%% | %11d | %11d | %8.1f ns%n", fastFrames,
+                    100.0 * tiered.getFaultCount() / length, 100.0 * tiered.getFastHitCount() / length,
+                    100.0 * tiered.getSlowHitCount() / length, tiered.getPromotionCount(),
+                    tiered.getDemotionCount(), tiered.getAverageAccessLatency());
+        }
+
+        System.out.printf("%-17s | %7.3f%% | %-8s | %-8s | %-11s | %-11s | %8.1f ns%n", "single-clock fast",
+                100.0 * uniform.getFaultCount() / length, "-", "-", "-", "-",
+                (uniformHits * fastLatency + uniformFaultCost + uniform.getFaultCount() * fastLatency) / length);
+    }
+
+    @Override
+    public boolean access(int pageNumber, boolean write) {
+        if (!super.access(pageNumber, write)) {
+            return false;
+        }
+        // Miss: charged the load plus an access to the tier the page landed in
+        totalLatency += faultLatency + (fast.contains(pageTable.get(pageNumber)) ? fastLatency : slowLatency);
+        return true;
+    }
+
+    @Override
+    protected void hit(int frameNumber, boolean write) {
+        super.hit(frameNumber, write);
+        if (fast.contains(frameNumber)) {
+            // Fast hit
+            fastHits++;
+            totalLatency += fastLatency;
+        } else {
+            // Slow hit: promote once the page proves hot
+            slowHits++;
+            totalLatency += slowLatency;
+            if (++hitCounts[frameNumber] >= promotionThreshold) {
+                promote(frameNumber);
+            }
+        }
+    }
+
+    /**
+     * Drops the slow clock's victim: a full table has a full fast tier, whose pages only
+     * leave it by demotion. Speculative pages therefore go to the slow tier, like new
+     * pages, and a real use promotes them.
+     */
+    @Override
+    protected int selectVictim() {
+        return slow.nextVictim();
+    }
+
+    @Override
+    protected void load(int frameNumber, int newPage, boolean write, boolean referenced) {
+        super.load(frameNumber, newPage, write, referenced);
+        hitCounts[frameNumber] = 0;
+    }
+
+    /**
+     * Swaps a hot slow-tier page with the fast clock's victim. Pages only reach the slow
+     * tier once the fast tier is full, so there always is a victim to swap with.
+     */
+    private void promote(int slowFrame) {
+        Page promoted = frames.get(slowFrame).getPage();
+        int fastFrame = fast.nextVictim();
+        Page demoted = frames.get(fastFrame).getPage();
+
+        frames.get(fastFrame).setPage(promoted);
+        hitCounts[fastFrame] = 0;
+        pageTable.put(promoted.getPageNumber(), fastFrame);
+
+        frames.get(slowFrame).setPage(demoted);
+        hitCounts[slowFrame] = 0;
+        pageTable.put(demoted.getPageNumber(), slowFrame);
+
+        promotions++;
+        demotions++;
+        totalLatency += 2 * migrationLatency;
+    }
+
+    /**
+     * Returns the number of references served by the fast tier.
+     */
+    public long getFastHitCount() {
+        return fastHits;
+    }
+
+    /**
+     * Returns the number of references served by the slow tier.
+     */
+    public long getSlowHitCount() {
+        return slowHits;
+    }
+
+    /**
+     * Returns the number of pages moved from the slow to the fast tier.
+     */
+    public long getPromotionCount() {
+        return promotions;
+    }
+
+    /**
+     * Returns the number of pages moved from the fast to the slow tier.
+     */
+    public long getDemotionCount() {
+        return demotions;
+    }
+
+    /**
+     * Returns the effective access latency in nanoseconds: total cost of hits, faults and
+     * migrations divided by the number of references.
+     */
+    public double getAverageAccessLatency() {
+        return (references == 0) ? 0 : totalLatency / references;
+    }
+
+    @Override
+    public String getName() {
+        return "Tiered(" + fast.size + "+" + slow.size + ")";
+    }
+}
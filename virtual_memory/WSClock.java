@@ -0,0 +1,191 @@
+package virtual_memory;
+
+/**
+ * Implementation of the WSClock (working-set clock) page replacement algorithm.
+ * Builds on the Second Chance clock hand, but each frame also records the virtual
+ * time (reference count) at which its page was last seen in use. On a page fault,
+ * frames are inspected in circular order:
+ *   - If R=1, clear R, stamp the frame with the current virtual time, and skip.
+ *   - If R=0 and the page is inside the working-set window tau, skip.
+ *   - If R=0, outside tau and clean (M=0), replace it.
+ *   - If R=0, outside tau and dirty (M=1), schedule it for cleaning and skip.
+ * Scheduled writes complete in the background before the next reference, after which
+ * the page is an ordinary clean eviction candidate.
+ *
+ * Clearing an R bit is paid for by the reference that set it, so only R=0 frames count
+ * as scan work. If SCAN_LIMIT of them (or the whole table, if smaller) are inspected
+ * without a victim, pending writes are waited for and the first page scheduled during
+ * this fault is replaced; failing that, the least recently used clean page seen (or,
+ * if all were dirty, the least recently used one, with a synchronous write-back). Each
+ * fault therefore costs O(SCAN_LIMIT) plus amortized O(1) per reference, like the clock.
+ */
+public class WSClock extends ClockPolicy {
+
+    // Most R=0 frames inspected per fault before falling back to the best one seen
+    private static final int SCAN_LIMIT = 64;
+
+    // Working-set window in references
+    private final long tau;
+
+    // Frames whose dirty pages are being written back asynchronously
+    private final int[] cleaningQueue;
+    private int cleaningCount;
+
+    // Frames currently in the cleaning queue (prevents double scheduling)
+    private final boolean[] cleaning;
+
+    private long asyncWrites = 0;
+    private long syncWrites = 0;
+
+    /**
+     * Creates a WSClock frame table.
+     *
+     * @param numberOfFrames capacity of the frame buffer
+     * @param tau            working-set window, in references
+     */
+    public WSClock(int numberOfFrames, long tau) {
+        super(numberOfFrames);
+        this.tau = tau;
+        this.cleaningQueue = new int[numberOfFrames];
+        this.cleaning = new boolean[numberOfFrames];
+    }
+
+    public static void main(String[] args) {
+        // Phase-changing workload: the working set moves every 200k references
+        int numberOfFrames = 1024;
+        int length = 4_000_000;
+        WorkloadGenerator generator = WorkloadGenerator.phaseShift(7, 1 << 16, 1536, 200_000, 0.8);
+        int[] referenceString = generator.generate(length);
+        boolean[] writes = new boolean[length];
+        generator.fillWrites(writes, 0, length, 0.3);
+
+        ReplacementPolicy[] policies = {
+            new SecondChance.Policy(numberOfFrames),
+            new ThirdChance.Policy(numberOfFrames),
+            new WSClock(numberOfFrames, 2 * numberOfFrames),
+            new Aging(numberOfFrames, 4)
+        };
+
+        System.out.println("\n\n**** WSClock / Aging Comparison ***");
+        System.out.println("Number of references: " + length);
+        System.out.println("Number of frames: " + numberOfFrames + "\n");
+
+        for (ReplacementPolicy policy : policies) {
+            for (int i = 0; i < length; i++) {
+                policy.access(referenceString[i], writes[i]);
+            }
+            System.out.printf("%-14s | faults %8d | fault rate %6.3f%%%n", policy.getName(),
+                    policy.getFaultCount(), 100.0 * policy.getFaultCount() / policy.getReferenceCount());
+        }
+    }
+
+    @Override
+    protected void onReference(int pageNumber, boolean write) {
+        // Writes issued since the last fault have finished in the background
+        completeCleaning();
+    }
+
+    /**
+     * Chooses a victim using the WSClock replacement policy. A prefetched page has R=0
+     * and is stamped outside the window, so it is the first clean page the hand may evict.
+     */
+    @Override
+    protected int selectVictim() {
+        int limit = Math.min(SCAN_LIMIT, frames.size());
+        int inspected = 0;
+        // First page scheduled for cleaning, oldest clean / oldest overall young pages (fallbacks)
+        int firstScheduled = -1;
+        int oldestClean = -1;
+        int oldest = -1;
+
+        while (true) {
+            int frameNumber = hand;
+            Frame frame = frames.get(frameNumber);
+            Page candidate = frame.getPage();
+            hand = (hand + 1) % frames.size();
+
+            if (candidate.isReferenceBit()) {
+                // In use: clear R and stamp with the current virtual time
+                candidate.setReferenceBit(false);
+                frame.setLastUseTime(references);
+                continue;
+            }
+
+            if (!cleaning[frameNumber]) {
+                long age = references - frame.getLastUseTime();
+                if (age > tau) {
+                    if (!candidate.isModifiedBit()) {
+                        // Old and clean: evict this page
+                        return frameNumber;
+                    }
+                    // Old but dirty: schedule a write-back instead of evicting now
+                    cleaning[frameNumber] = true;
+                    cleaningQueue[cleaningCount++] = frameNumber;
+                    if (firstScheduled < 0) {
+                        firstScheduled = frameNumber;
+                    }
+                } else {
+                    if (!candidate.isModifiedBit()
+                            && (oldestClean < 0 || frame.getLastUseTime() < frames.get(oldestClean).getLastUseTime())) {
+                        oldestClean = frameNumber;
+                    }
+                    if (oldest < 0 || frame.getLastUseTime() < frames.get(oldest).getLastUseTime()) {
+                        oldest = frameNumber;
+                    }
+                }
+            }
+
+            if (++inspected == limit) {
+                // No old clean page nearby: wait for the writes, then take the best page seen
+                completeCleaning();
+                int victim = (firstScheduled >= 0) ? firstScheduled
+                           : (oldestClean >= 0) ? oldestClean
+                           : (oldest >= 0) ? oldest : frameNumber;
+                if (frames.get(victim).getPage().isModifiedBit()) {
+                    syncWrites++;
+                }
+                return victim;
+            }
+        }
+    }
+
+    /**
+     * Completes all scheduled write-backs: the pages become clean.
+     */
+    private void completeCleaning() {
+        for (int i = 0; i < cleaningCount; i++) {
+            int frameNumber = cleaningQueue[i];
+            frames.get(frameNumber).getPage().resetModifiedBit();
+            cleaning[frameNumber] = false;
+            asyncWrites++;
+        }
+        cleaningCount = 0;
+    }
+
+    @Override
+    protected void load(int frameNumber, int newPage, boolean write, boolean referenced) {
+        super.load(frameNumber, newPage, write, referenced);
+        // Demand-loaded pages start with R=1 and the current virtual time;
+        // prefetched pages with R=0 and a time already outside the working-set window
+        frames.get(frameNumber).setLastUseTime(referenced ? references : references - tau - 1);
+    }
+
+    /**
+     * Returns the number of dirty pages written back in the background.
+     */
+    public long getAsyncWriteCount() {
+        return asyncWrites;
+    }
+
+    /**
+     * Returns the number of dirty pages that had to be written back synchronously on eviction.
+     */
+    public long getSyncWriteCount() {
+        return syncWrites;
+    }
+
+    @Override
+    public String getName() {
+        return "WSClock";
+    }
+}
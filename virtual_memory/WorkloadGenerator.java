@@ -0,0 +1,486 @@
+package virtual_memory;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Seeded, reproducible generator of synthetic page reference strings.
+ * Supported reference patterns:
+ *   - Zipf:        page p (0-based rank) is referenced with probability ~ 1 / (p + 1)^skew
+ *   - Scan:        sequential sweep over all pages with a fixed stride, wrapping around
+ *   - Loop:        repeated sweep over a small window of pages
+ *   - Phase shift: Zipf-distributed working set that jumps to a new region every phase
+ * The same seed always yields the same sequence. References can be produced in bulk
+ * into an int[] buffer (fastest) or lazily through an iterator / IntStream.
+ * Zipf sampling uses Vose's alias method, so every pattern costs O(1) per reference.
+ */
+public class WorkloadGenerator {
+
+    // Pattern identifiers
+    private static final int ZIPF = 0;
+    private static final int SCAN = 1;
+    private static final int LOOP = 2;
+    private static final int PHASE_SHIFT = 3;
+
+    // SplitMix64 golden-ratio increment
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Which reference pattern this generator produces
+    private final int pattern;
+
+    // Total number of distinct pages in the address space
+    private final int numberOfPages;
+
+    // Scan stride, loop length, or working-set size depending on the pattern
+    private final int span;
+
+    // Number of references per phase (phase shift only)
+    private final int phaseLength;
+
+    // Alias table for Zipf sampling (Zipf and phase shift only).
+    // Each entry packs (acceptance threshold << 32) | alias column, so a sample touches one cache line.
+    private final long[] aliasTable;
+
+    // SplitMix64 state
+    private long state;
+
+    // Position within the current scan / loop / phase
+    private int position;
+
+    // First page of the current loop window or working set
+    private int base;
+
+    private WorkloadGenerator(long seed, int pattern, int numberOfPages, int span, int phaseLength, double skew) {
+        if (numberOfPages <= 0) {
+            throw new IllegalArgumentException("numberOfPages must be positive: " + numberOfPages);
+        }
+        this.state = seed;
+        this.pattern = pattern;
+        this.numberOfPages = numberOfPages;
+        this.span = span;
+        this.phaseLength = phaseLength;
+
+        if (pattern == ZIPF || pattern == PHASE_SHIFT) {
+            int n = (pattern == ZIPF) ? numberOfPages : span;
+            this.aliasTable = buildAliasTable(n, skew);
+        } else {
+            this.aliasTable = null;
+        }
+    }
+
+    /**
+     * Creates a generator whose references follow a Zipf distribution over all pages.
+     * Page 0 is the hottest page, page numberOfPages-1 the coldest.
+     *
+     * @param seed          random seed
+     * @param numberOfPages number of distinct pages
+     * @param skew          Zipf exponent (0 = uniform, ~1 = typical web/cache workloads)
+     */
+    public static WorkloadGenerator zipf(long seed, int numberOfPages, double skew) {
+        return new WorkloadGenerator(seed, ZIPF, numberOfPages, numberOfPages, 0, skew);
+    }
+
+    /**
+     * Creates a generator that sweeps sequentially over all pages, wrapping around.
+     *
+     * @param seed          random seed (selects the starting page)
+     * @param numberOfPages number of distinct pages
+     * @param stride        distance between consecutive references (1 = pure sequential)
+     */
+    public static WorkloadGenerator scan(long seed, int numberOfPages, int stride) {
+        if (stride <= 0 || stride > numberOfPages) {
+            throw new IllegalArgumentException("stride must be in [1, numberOfPages]: " + stride);
+        }
+        WorkloadGenerator generator = new WorkloadGenerator(seed, SCAN, numberOfPages, stride, 0, 0);
+        generator.position = generator.nextIndex(numberOfPages);
+        return generator;
+    }
+
+    /**
+     * Creates a generator that repeatedly loops over a window of loopLength pages.
+     * A loop slightly larger than the frame count is the classic worst case for clock.
+     *
+     * @param seed          random seed (selects the window position)
+     * @param numberOfPages number of distinct pages
+     * @param loopLength    number of pages in the loop
+     */
+    public static WorkloadGenerator loop(long seed, int numberOfPages, int loopLength) {
+        if (loopLength <= 0 || loopLength > numberOfPages) {
+            throw new IllegalArgumentException("loopLength must be in [1, numberOfPages]: " + loopLength);
+        }
+        WorkloadGenerator generator = new WorkloadGenerator(seed, LOOP, numberOfPages, loopLength, 0, 0);
+        generator.base = generator.nextIndex(numberOfPages - loopLength + 1);
+        return generator;
+    }
+
+    /**
+     * Creates a generator with a Zipf-distributed working set that moves to a new,
+     * randomly chosen region of the address space every phaseLength references.
+     *
+     * @param seed           random seed
+     * @param numberOfPages  number of distinct pages
+     * @param workingSetSize number of pages in each phase's working set
+     * @param phaseLength    number of references before the working set shifts
+     * @param skew           Zipf exponent within the working set
+     */
+    public static WorkloadGenerator phaseShift(long seed, int numberOfPages, int workingSetSize,
+                                               int phaseLength, double skew) {
+        if (workingSetSize <= 0 || workingSetSize > numberOfPages) {
+            throw new IllegalArgumentException("workingSetSize must be in [1, numberOfPages]: " + workingSetSize);
+        }
+        if (phaseLength <= 0) {
+            throw new IllegalArgumentException("phaseLength must be positive: " + phaseLength);
+        }
+        WorkloadGenerator generator =
+                new WorkloadGenerator(seed, PHASE_SHIFT, numberOfPages, workingSetSize, phaseLength, skew);
+        generator.base = generator.nextIndex(numberOfPages - workingSetSize + 1);
+        return generator;
+    }
+
+    /**
+     * Returns the next page reference.
+     */
+    public int nextReference() {
+        switch (pattern) {
+            case ZIPF:
+                return nextZipf();
+            case SCAN: {
+                int page = position;
+                position += span;
+                if (position >= numberOfPages) {
+                    position -= numberOfPages;
+                }
+                return page;
+            }
+            case LOOP: {
+                int page = base + position;
+                if (++position == span) {
+                    position = 0;
+                }
+                return page;
+            }
+            default: {
+                if (position == phaseLength) {
+                    // Phase over: move the working set to a new region
+                    base = nextIndex(numberOfPages - span + 1);
+                    position = 0;
+                }
+                position++;
+                return base + nextZipf();
+            }
+        }
+    }
+
+    /**
+     * Fills buffer[offset .. offset+length) with the next references.
+     * Each pattern has its own tight loop so bulk generation avoids per-element dispatch.
+     *
+     * @param buffer destination array
+     * @param offset first index to write
+     * @param length number of references to generate
+     */
+    public void fill(int[] buffer, int offset, int length) {
+        int end = offset + length;
+        switch (pattern) {
+            case ZIPF:
+                fillZipf(buffer, offset, end, 0);
+                break;
+            case SCAN: {
+                int page = position;
+                for (int i = offset; i < end; i++) {
+                    buffer[i] = page;
+                    page += span;
+                    if (page >= numberOfPages) {
+                        page -= numberOfPages;
+                    }
+                }
+                position = page;
+                break;
+            }
+            case LOOP: {
+                int p = position;
+                for (int i = offset; i < end; i++) {
+                    buffer[i] = base + p;
+                    if (++p == span) {
+                        p = 0;
+                    }
+                }
+                position = p;
+                break;
+            }
+            default: {
+                int i = offset;
+                while (i < end) {
+                    if (position == phaseLength) {
+                        base = nextIndex(numberOfPages - span + 1);
+                        position = 0;
+                    }
+                    // Generate the rest of this phase (or of the buffer) in one run
+                    int run = Math.min(end - i, phaseLength - position);
+                    fillZipf(buffer, i, i + run, base);
+                    i += run;
+                    position += run;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Generates a new reference string of the given length.
+     *
+     * @param length number of references
+     * @return freshly allocated array of page numbers
+     */
+    public int[] generate(int length) {
+        int[] referenceString = new int[length];
+        fill(referenceString, 0, length);
+        return referenceString;
+    }
+
+    /**
+     * Returns a lazy iterator over the next length references.
+     * Memory use is constant regardless of length.
+     *
+     * @param length number of references the iterator yields
+     */
+    public PrimitiveIterator.OfInt iterator(long length) {
+        return new PrimitiveIterator.OfInt() {
+            private long remaining = length;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                return nextReference();
+            }
+        };
+    }
+
+    /**
+     * Returns a lazy, sequential IntStream over the next length references.
+     *
+     * @param length number of references the stream yields
+     */
+    public IntStream stream(long length) {
+        Spliterator.OfInt spliterator = Spliterators.spliterator(iterator(length), length,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    /**
+     * Fills buffer[offset .. offset+length) with write flags, true with probability writeRatio.
+     * Pair with fill() to drive the modified (M) bit.
+     *
+     * @param buffer     destination array
+     * @param offset     first index to write
+     * @param length     number of flags to generate
+     * @param writeRatio probability that a reference is a write
+     */
+    public void fillWrites(boolean[] buffer, int offset, int length, double writeRatio) {
+        // Compare against a 53-bit threshold so no floating point is needed per element
+        long threshold = (long) (writeRatio * (1L << 53));
+        for (int i = offset, end = offset + length; i < end; i++) {
+            buffer[i] = (nextLong() >>> 11) < threshold;
+        }
+    }
+
+    /**
+     * Returns an allocation size in [min, max] drawn from a log-normal distribution:
+     * most requests are small, with a long tail of large ones, as seen in real allocators.
+     * The median is the geometric mean of min and max; min and max lie two sigmas out.
+     *
+     * @param min smallest size returned
+     * @param max largest size returned
+     */
+    public int nextSize(int min, int max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Require 0 < min <= max: " + min + ", " + max);
+        }
+        double logMin = Math.log(min);
+        double logMax = Math.log(max);
+        double mu = (logMin + logMax) / 2;
+        double sigma = (logMax - logMin) / 4;
+        long size = Math.round(Math.exp(mu + sigma * nextGaussian()));
+        return (int) Math.max(min, Math.min(max, size));
+    }
+
+    /**
+     * Fills buffer with log-normally distributed allocation sizes in [min, max].
+     *
+     * @param buffer destination array
+     * @param min    smallest size
+     * @param max    largest size
+     */
+    public void fillSizes(int[] buffer, int min, int max) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = nextSize(min, max);
+        }
+    }
+
+    /**
+     * Bulk version of nextZipf(): writes offsetBase + rank into buffer[from .. to).
+     * Keeps the generator state in a local and selects the alias branch-free,
+     * since the alias coin flip is unpredictable by design.
+     */
+    private void fillZipf(int[] buffer, int from, int to, int offsetBase) {
+        long[] table = aliasTable;
+        long columns = table.length;
+        long s = state;
+        for (int i = from; i < to; i++) {
+            long z = (s += GOLDEN_GAMMA);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= (z >>> 31);
+            int column = (int) (((z >>> 32) * columns) >>> 32);
+            // mask is all ones when the coin says "keep column", zero when it says "take alias"
+            long entry = table[column];
+            int mask = (((int) z & 0x7fffffff) - (int) (entry >>> 32)) >> 31;
+            buffer[i] = offsetBase + ((column & mask) | ((int) entry & ~mask));
+        }
+        state = s;
+    }
+
+    /**
+     * Draws one Zipf rank in [0, table size) using the alias table.
+     */
+    private int nextZipf() {
+        long bits = nextLong();
+        // High 32 bits pick the column (multiply-shift, no modulo), low 31 bits the coin
+        int column = (int) (((bits >>> 32) * aliasTable.length) >>> 32);
+        long entry = aliasTable[column];
+        return ((int) bits & 0x7fffffff) < (int) (entry >>> 32) ? column : (int) entry;
+    }
+
+    /**
+     * Returns a uniform index in [0, bound).
+     */
+    private int nextIndex(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns a standard normal sample (Box-Muller).
+     */
+    private double nextGaussian() {
+        double u1 = ((nextLong() >>> 11) + 1) * 0x1.0p-53; // (0, 1]
+        double u2 = (nextLong() >>> 11) * 0x1.0p-53;       // [0, 1)
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * SplitMix64 step: fast, statistically strong, and trivially seedable.
+     */
+    private long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Builds a packed Vose alias table for a Zipf distribution over n ranks.
+     * Probabilities are stored scaled to 2^31 so sampling is integer-only.
+     */
+    private static long[] buildAliasTable(int n, double skew) {
+        int[] probability = new int[n];
+        int[] alias = new int[n];
+        double[] scaled = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = 1.0 / Math.pow(i + 1, skew);
+            sum += scaled[i];
+        }
+        for (int i = 0; i < n; i++) {
+            scaled[i] = scaled[i] * n / sum;
+        }
+
+        // Work lists of columns below and above the average weight
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = toFixedPoint(scaled[less]);
+            alias[less] = more;
+            // The large column donates the remainder of the small column's slot
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Leftovers are full columns (up to rounding error)
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            probability[column] = Integer.MAX_VALUE;
+            alias[column] = column;
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            probability[column] = Integer.MAX_VALUE;
+            alias[column] = column;
+        }
+
+        long[] table = new long[n];
+        for (int i = 0; i < n; i++) {
+            table[i] = ((long) probability[i] << 32) | (alias[i] & 0xffffffffL);
+        }
+        return table;
+    }
+
+    private static int toFixedPoint(double probability) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(probability * (1L << 31)));
+    }
+
+    public static void main(String[] args) {
+        // Measure bulk generation throughput for each pattern
+        int numberOfPages = 1 << 20;
+        int[] buffer = new int[1 << 22];
+        WorkloadGenerator[] generators = {
+            zipf(42, numberOfPages, 0.99),
+            scan(42, numberOfPages, 1),
+            loop(42, numberOfPages, 4096),
+            phaseShift(42, numberOfPages, 8192, 1_000_000, 0.9)
+        };
+        String[] names = {"Zipf", "Scan", "Loop", "Phase shift"};
+
+        System.out.println("\n\n**** Workload Generator ***");
+        System.out.println("Number of pages: " + numberOfPages);
+        System.out.println("Buffer size: " + buffer.length + "\n");
+
+        for (int g = 0; g < generators.length; g++) {
+            long checksum = 0;
+            long start = System.nanoTime();
+            for (int round = 0; round < 100; round++) {
+                generators[g].fill(buffer, 0, buffer.length);
+                checksum += buffer[round];
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rate = 100.0 * buffer.length / seconds / 1e6;
+            System.out.printf("%-12s | %8.1f M refs/s | checksum %d%n", names[g], rate, checksum);
+        }
+    }
+}